@@ -0,0 +1,132 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Reverse in Groups - reverse every group of k elements (the last group may be shorter), e.g. k = 3: [1 2 3 4 5 6 7 8] -> [3 2 1 6 5 4 8 7]
+public class GroupReverse {
+    /* Groups never overlap, so they can be done in any order and on any thread:
+        SEQUENTIAL - one group after the other with two pointers (the p1 loop)
+        SIMD       - one vector load, a fixed lane shuffle and one store per vector (VectorGroupReverse)
+                     only when k divides the lane count (k = 8 with 8 lanes: one group per vector, k = 2 or 4: several)
+                     and the jdk.incubator.vector module is there, otherwise it does the same as SEQUENTIAL
+        PARALLEL   - the array is split at group boundaries into fork-join tasks, every task uses the SIMD kernel if it can
+     */
+    enum Mode { SEQUENTIAL, SIMD, PARALLEL }
+
+    interface Kernel {
+        boolean supports(int k);
+
+        // Reverses every group in arr[from..to), from is a multiple of k, to is a multiple of k or arr.length
+        void reverseGroups(int[] arr, int from, int to, int k);
+    }
+
+    private static final Kernel SCALAR = new ScalarKernel();
+    // null when the Vector API is not available
+    private static final Kernel VECTOR = loadVectorKernel();
+    // Below this many elements per task forking costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    // Picks the mode by size: PARALLEL for big arrays, SIMD (or its scalar fallback) otherwise
+    public static void reverseInGroups(int[] arr, int k) {
+        reverseInGroups(arr, k, arr.length >= 2 * PARALLEL_THRESHOLD ? Mode.PARALLEL : Mode.SIMD);
+    }
+
+    public static void reverseInGroups(int[] arr, int k, Mode mode) {
+        if (k < 1) {
+            throw new IllegalArgumentException("group size must be >= 1: " + k);
+        }
+        if (k == 1 || arr.length < 2) {
+            return;
+        }
+        Kernel kernel = mode == Mode.SEQUENTIAL ? SCALAR : kernelFor(k);
+        if (mode == Mode.PARALLEL && arr.length >= 2 * PARALLEL_THRESHOLD) {
+            // Tasks cover whole groups, at least PARALLEL_THRESHOLD elements each
+            int groupsPerTask = Math.max(1, PARALLEL_THRESHOLD / k);
+            ForkJoinPool.commonPool().invoke(new ReverseTask(arr, 0, groupCount(arr.length, k), groupsPerTask, k, kernel));
+        } else {
+            kernel.reverseGroups(arr, 0, arr.length, k);
+        }
+    }
+
+    // True when SIMD / PARALLEL use the vector kernel for this k
+    public static boolean simdSupported(int k) {
+        return VECTOR != null && VECTOR.supports(k);
+    }
+
+    private static Kernel kernelFor(int k) {
+        return simdSupported(k) ? VECTOR : SCALAR;
+    }
+
+    private static int groupCount(int n, int k) {
+        return (int) (((long) n + k - 1) / k);
+    }
+
+    // Reverses groups [fromGroup, toGroup), splits in half until a task has at most groupsPerTask groups
+    private static class ReverseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] arr;
+        private final int fromGroup;
+        private final int toGroup;
+        private final int groupsPerTask;
+        private final int k;
+        private final transient Kernel kernel;
+
+        ReverseTask(int[] arr, int fromGroup, int toGroup, int groupsPerTask, int k, Kernel kernel) {
+            this.arr = arr;
+            this.fromGroup = fromGroup;
+            this.toGroup = toGroup;
+            this.groupsPerTask = groupsPerTask;
+            this.k = k;
+            this.kernel = kernel;
+        }
+
+        @Override
+        protected void compute() {
+            if (toGroup - fromGroup <= groupsPerTask) {
+                int from = (int) Math.min((long) fromGroup * k, arr.length);
+                int to = (int) Math.min((long) toGroup * k, arr.length);
+                kernel.reverseGroups(arr, from, to, k);
+                return;
+            }
+            int mid = (fromGroup + toGroup) >>> 1;
+            invokeAll(new ReverseTask(arr, fromGroup, mid, groupsPerTask, k, kernel),
+                      new ReverseTask(arr, mid, toGroup, groupsPerTask, k, kernel));
+        }
+    }
+
+    static class ScalarKernel implements Kernel {
+        @Override
+        public boolean supports(int k) {
+            return true;
+        }
+
+        @Override
+        public void reverseGroups(int[] arr, int from, int to, int k) {
+            for (int i = from; i < to; i += k) {
+                int left = i;
+                int right = (int) Math.min((long) i + k - 1, to - 1); // To prevent index out of bound in last iteration if k is not a multiple of arr.length (e.g k = 3, n = 5 -> 2 excess)
+
+                while (left < right) {
+                    int temp = arr[left];
+                    arr[left] = arr[right];
+                    arr[right] = temp;
+                    left++;
+                    right--;
+                }
+            }
+        }
+    }
+
+    private static Kernel loadVectorKernel() {
+        /* Only try the vector kernel when the module was added (--add-modules jdk.incubator.vector)
+           It is loaded by name so this class never links against the Vector API itself */
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (Kernel) Class.forName("VectorGroupReverse").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Scalar only
+            }
+        }
+        return null;
+    }
+}
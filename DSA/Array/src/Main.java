@@ -1,5 +1,6 @@
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.stream.IntStream;
 
 public class Main {
     public static void main(String[] args) {
@@ -11,9 +12,17 @@ public class Main {
         int[] arr = {1, -4, 3, -6, 7, 0};
         int n = arr.length;
         int d = 3;
-        Arrays.sort(arr);
-        int maxProduct = Math.max(arr[0] * arr[1] * arr[n - 1], arr[n - 1] * arr[n - 2] * arr[n - 3]);
+        // Method 1 - Sort O(n log n) Time
+        int[] sorted = arr.clone();
+        Arrays.sort(sorted);
+        int maxProduct = Math.max(sorted[0] * sorted[1] * sorted[n - 1], sorted[n - 1] * sorted[n - 2] * sorted[n - 3]);
         System.out.println(maxProduct); // 168
+
+        // Method 2 - One pass, only the d largest and d smallest are kept (see MaxProduct), works for any d
+        System.out.println(MaxProduct.of(arr, d)); // 168
+        System.out.println(MaxProduct.of(arr, 4)); // 504 (-4 * 3 * -6 * 7)
+        // Parallel chunks each keep their own buffers, then they are combined
+        System.out.println(MaxProduct.of(IntStream.of(arr).parallel(), d)); // 168
     }
 
     // Rotate an Array by d - Counterclockwise or Left
@@ -46,6 +55,14 @@ public class Main {
             cpy[i + arr.length - n2] = arr2[i];
         }
         System.out.println(Arrays.toString(cpy)); // or recopy cpy to arr
+
+        // Method 3 - Three reversals O(n) Time and O(1) Space (see Rotation)
+        int arr3[] = {1, 2, 3, 4, 5, 6};
+        Rotation.rotateLeft(arr3, 2);
+        System.out.println(Arrays.toString(arr3)); // [3, 4, 5, 6, 1, 2]
+        // d is taken modulo n, so 8 is the same as 2
+        Rotation.rotateRight(arr3, 8);
+        System.out.println(Arrays.toString(arr3)); // [1, 2, 3, 4, 5, 6]
     }
 
     // Reverse an Array in groups of given size
@@ -53,20 +70,19 @@ public class Main {
         int[] arr = {1, 2, 3, 4, 5, 6, 7, 8};
         int k = 3;
 
+        // Two pointers per group, one group after the other (see GroupReverse.ScalarKernel)
+        GroupReverse.reverseInGroups(arr, k, GroupReverse.Mode.SEQUENTIAL);
+        System.out.println(Arrays.toString(arr)); // [3, 2, 1, 6, 5, 4, 8, 7]
 
-        for(int i = 0; i < arr.length; i += k) {
-            int left = i;
-            int right = Math.min(i + k - 1, arr.length - 1); // To prevent index out of bound in last iteration if k is not a multiple of arr.length (e.g k = 3, n = 5 -> 2 excess)
+        // Groups are independent: SIMD shuffles whole vectors (k has to divide the lane count, 4 does), PARALLEL splits big arrays over threads
+        int[] arr2 = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        GroupReverse.reverseInGroups(arr2, 4, GroupReverse.Mode.SIMD);
+        System.out.println(Arrays.toString(arr2) + " simd: " + GroupReverse.simdSupported(4)); // [4, 3, 2, 1, 8, 7, 6, 5, 10, 9]
 
-            while (left < right) {
-                int temp = arr[left];
-                arr[left] = arr[right];
-                arr[right] = temp;
-                left++;
-                right--;
-            }
-        }
-        System.out.println(Arrays.toString(arr)); // [3, 2, 1, 6, 5, 4, 8, 7]
+        int[] big = new int[10_000_000];
+        Arrays.setAll(big, i -> i);
+        GroupReverse.reverseInGroups(big, 8, GroupReverse.Mode.PARALLEL);
+        System.out.println(big[0] + " " + big[7] + " " + big[8]); // 7 0 15
     }
 
 
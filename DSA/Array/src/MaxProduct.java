@@ -0,0 +1,224 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+// Maximum product of k elements in one pass, O(n * k) worst case and O(k) memory, no sort of the whole input
+public class MaxProduct {
+    /* Flow:
+        Keep the k largest and the k smallest values seen so far (two small sorted buffers)
+        A value bigger than the smallest of the top buffer (or smaller than the biggest of the bottom buffer) replaces it
+        The best product always takes j of the smallest and k - j of the largest values (negatives come in pairs),
+        so at the end only the 2k buffered values are tried: every j from 0 to k, plus the k values closest to zero
+        (best when every choice is negative, e.g. k = 3 and all values negative)
+        While at most 2k values were seen the two buffers overlap, so those values are also kept in a plain list
+        Two trackers of separate chunks combine into the tracker of both chunks -> works with parallel streams
+     */
+    private final int k;
+    // Ascending, top[0] is the smallest of the k largest
+    private final long[] top;
+    // Ascending, bottom[bottomSize - 1] is the biggest of the k smallest
+    private final long[] bottom;
+    // Every value while count <= 2k, unused after that
+    private final long[] all;
+    private int topSize;
+    private int bottomSize;
+    private long count;
+
+    public MaxProduct(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be >= 1: " + k);
+        }
+        this.k = k;
+        this.top = new long[k];
+        this.bottom = new long[k];
+        this.all = new long[2 * k];
+    }
+
+    public static long of(int[] arr, int k) {
+        MaxProduct tracker = new MaxProduct(k);
+        for (int value : arr) {
+            tracker.accept(value);
+        }
+        return tracker.result();
+    }
+
+    public static long of(long[] arr, int k) {
+        MaxProduct tracker = new MaxProduct(k);
+        for (long value : arr) {
+            tracker.accept(value);
+        }
+        return tracker.result();
+    }
+
+    // Parallel streams give every chunk its own tracker and combine them at the end
+    public static long of(IntStream values, int k) {
+        return values.collect(() -> new MaxProduct(k), MaxProduct::accept, MaxProduct::combine).result();
+    }
+
+    public static long of(LongStream values, int k) {
+        return values.collect(() -> new MaxProduct(k), MaxProduct::accept, MaxProduct::combine).result();
+    }
+
+    public void accept(long value) {
+        if (count < all.length) {
+            all[(int) count] = value;
+        }
+        count++;
+        addTop(value);
+        addBottom(value);
+    }
+
+    // Adds the values seen by other (another chunk of the same input) to this tracker
+    public MaxProduct combine(MaxProduct other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("different k: " + k + " != " + other.k);
+        }
+        // Both still small -> the combined values fit in the list too
+        if (count + other.count <= all.length) {
+            System.arraycopy(other.all, 0, all, (int) count, (int) other.count);
+        }
+        count += other.count;
+        for (int i = 0; i < other.topSize; i++) {
+            addTop(other.top[i]);
+        }
+        for (int i = 0; i < other.bottomSize; i++) {
+            addBottom(other.bottom[i]);
+        }
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    // Throws ArithmeticException if the maximum product does not fit in a long
+    public long result() {
+        if (count < k) {
+            throw new IllegalStateException("need at least " + k + " values, got " + count);
+        }
+        // The values the answer can be made of, sorted
+        long[] candidates;
+        if (count <= all.length) {
+            candidates = Arrays.copyOf(all, (int) count);
+        } else {
+            candidates = new long[2 * k];
+            System.arraycopy(bottom, 0, candidates, 0, k);
+            System.arraycopy(top, 0, candidates, k, k);
+        }
+        Arrays.sort(candidates);
+        int m = candidates.length;
+
+        // j smallest and k - j largest
+        long best = Long.MIN_VALUE;
+        boolean found = false;
+        for (int j = 0; j <= k; j++) {
+            long[] chosen = new long[k];
+            System.arraycopy(candidates, 0, chosen, 0, j);
+            System.arraycopy(candidates, m - (k - j), chosen, j, k - j);
+            Long product = product(chosen);
+            if (product != null && (!found || product > best)) {
+                best = product;
+                found = true;
+            }
+        }
+
+        // k values closest to zero (smallest absolute product when it has to be negative)
+        // Sorted, so they are a window around where the negatives end: grow it towards the side closer to zero
+        int lo = 0;
+        while (lo < m && candidates[lo] < 0) {
+            lo++;
+        }
+        int hi = lo;
+        while (hi - lo < k) {
+            // -x as unsigned is |x|, also for Long.MIN_VALUE
+            if (hi == m || (lo > 0 && Long.compareUnsigned(-candidates[lo - 1], candidates[hi]) <= 0)) {
+                lo--;
+            } else {
+                hi++;
+            }
+        }
+        long[] byAbs = Arrays.copyOfRange(candidates, lo, hi);
+        Long product = product(byAbs);
+        if (product != null && (!found || product > best)) {
+            best = product;
+            found = true;
+        }
+        if (!found) {
+            // Only negative overflows, the answer itself is below Long.MIN_VALUE
+            throw new ArithmeticException("long overflow");
+        }
+        return best;
+    }
+
+    // Exact product, null when it overflows to a negative number (cannot be the maximum), throws when it overflows positive
+    private static Long product(long[] values) {
+        // Multiply the magnitudes as unsigned and apply the sign at the end, so no intermediate leaves the range while the product fits
+        // (in sorted order -2^62 * -2 * -1 overflowed at -2^62 * -2 although the product is exactly Long.MIN_VALUE)
+        long magnitude = 1;
+        boolean negative = false;
+        boolean overflow = false;
+        for (long value : values) {
+            if (value == 0) {
+                return 0L;
+            }
+            negative ^= value < 0;
+            // -x as unsigned is |x|, also for Long.MIN_VALUE
+            long abs = value < 0 ? -value : value;
+            // Above 2^64 the magnitude is not needed any more, keep going only for a zero or the sign
+            if (!overflow) {
+                overflow = Long.compareUnsigned(abs, Long.divideUnsigned(-1L, magnitude)) > 0;
+                magnitude *= abs;
+            }
+        }
+        if (negative) {
+            // Down to -2^63 fits, -magnitude is Long.MIN_VALUE for exactly 2^63
+            return overflow || Long.compareUnsigned(magnitude, Long.MIN_VALUE) > 0 ? null : -magnitude;
+        }
+        if (overflow || magnitude < 0) {
+            throw new ArithmeticException("long overflow");
+        }
+        return magnitude;
+    }
+
+    // Keeps the k largest, ascending (insertion into a sorted buffer of at most k values)
+    private void addTop(long value) {
+        int i;
+        if (topSize < k) {
+            i = topSize++;
+        } else if (value > top[0]) {
+            // Drop the smallest, shift left while the value is bigger
+            i = 0;
+            while (i + 1 < k && top[i + 1] < value) {
+                top[i] = top[i + 1];
+                i++;
+            }
+            top[i] = value;
+            return;
+        } else {
+            return;
+        }
+        while (i > 0 && top[i - 1] > value) {
+            top[i] = top[i - 1];
+            i--;
+        }
+        top[i] = value;
+    }
+
+    // Keeps the k smallest, ascending
+    private void addBottom(long value) {
+        int i;
+        if (bottomSize < k) {
+            i = bottomSize++;
+        } else if (value < bottom[k - 1]) {
+            // Drop the biggest
+            i = k - 1;
+        } else {
+            return;
+        }
+        while (i > 0 && bottom[i - 1] > value) {
+            bottom[i] = bottom[i - 1];
+            i--;
+        }
+        bottom[i] = value;
+    }
+}
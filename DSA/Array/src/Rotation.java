@@ -0,0 +1,92 @@
+// Rotation - rotate an array in place by d positions, O(n) Time and O(1) Space
+public class Rotation {
+    /* Flow (three reversals), e.g. left by 2: [1 2 | 3 4 5 6]
+        Reverse the first d elements    -> [2 1 | 3 4 5 6]
+        Reverse the rest                -> [2 1 | 6 5 4 3]
+        Reverse the whole array         -> [3 4 5 6 1 2]
+       Every element is swapped about twice, no second array
+       d is taken modulo n (d = n + 2 is the same as 2), a negative d rotates the other way
+     */
+
+    public static void rotateLeft(int[] arr, int d) {
+        int n = arr.length;
+        int k = shift(d, n);
+        if (k == 0) {
+            return;
+        }
+        reverse(arr, 0, k - 1);
+        reverse(arr, k, n - 1);
+        reverse(arr, 0, n - 1);
+    }
+
+    // Right by d is left by n - d
+    public static void rotateRight(int[] arr, int d) {
+        rotateLeft(arr, arr.length - shift(d, arr.length));
+    }
+
+    public static void rotateLeft(long[] arr, int d) {
+        int n = arr.length;
+        int k = shift(d, n);
+        if (k == 0) {
+            return;
+        }
+        reverse(arr, 0, k - 1);
+        reverse(arr, k, n - 1);
+        reverse(arr, 0, n - 1);
+    }
+
+    public static void rotateRight(long[] arr, int d) {
+        rotateLeft(arr, arr.length - shift(d, arr.length));
+    }
+
+    public static void rotateLeft(Object[] arr, int d) {
+        int n = arr.length;
+        int k = shift(d, n);
+        if (k == 0) {
+            return;
+        }
+        reverse(arr, 0, k - 1);
+        reverse(arr, k, n - 1);
+        reverse(arr, 0, n - 1);
+    }
+
+    public static void rotateRight(Object[] arr, int d) {
+        rotateLeft(arr, arr.length - shift(d, arr.length));
+    }
+
+    // d modulo n in [0, n), 0 for an empty array
+    private static int shift(int d, int n) {
+        return n == 0 ? 0 : Math.floorMod(d, n);
+    }
+
+    // Reverse arr[left..right] (both inclusive)
+    static void reverse(int[] arr, int left, int right) {
+        while (left < right) {
+            int temp = arr[left];
+            arr[left] = arr[right];
+            arr[right] = temp;
+            left++;
+            right--;
+        }
+    }
+
+    static void reverse(long[] arr, int left, int right) {
+        while (left < right) {
+            long temp = arr[left];
+            arr[left] = arr[right];
+            arr[right] = temp;
+            left++;
+            right--;
+        }
+    }
+
+    static void reverse(Object[] arr, int left, int right) {
+        while (left < right) {
+            Object temp = arr[left];
+            arr[left] = arr[right];
+            arr[right] = temp;
+            left++;
+            right--;
+        }
+    }
+}
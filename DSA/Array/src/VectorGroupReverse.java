@@ -0,0 +1,42 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+// Reverses groups of k ints with one shuffle per vector (k divides the lane count, e.g. k = 2, 4 or 8 with 8 lanes)
+// Needs --add-modules jdk.incubator.vector at compile and run time, GroupReverse only loads it when the module is there
+class VectorGroupReverse implements GroupReverse.Kernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    // shuffles[log2(k)]: lane i takes lane (start of its group) + (k - 1 - position in its group)
+    private final VectorShuffle<Integer>[] shuffles;
+    private final GroupReverse.Kernel scalar = new GroupReverse.ScalarKernel();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    VectorGroupReverse() {
+        shuffles = new VectorShuffle[Integer.numberOfTrailingZeros(LANES) + 1];
+        for (int log = 1; log < shuffles.length; log++) {
+            int k = 1 << log;
+            shuffles[log] = VectorShuffle.fromOp(SPECIES, i -> (i / k) * k + (k - 1 - i % k));
+        }
+    }
+
+    @Override
+    public boolean supports(int k) {
+        // Needs real SIMD (at least 4 lanes) and whole groups inside one vector
+        return LANES >= 4 && k >= 2 && k <= LANES && Integer.bitCount(k) == 1;
+    }
+
+    @Override
+    public void reverseGroups(int[] arr, int from, int to, int k) {
+        VectorShuffle<Integer> shuffle = shuffles[Integer.numberOfTrailingZeros(k)];
+        // from is a multiple of k and LANES is a multiple of k, so every vector starts at a group boundary
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += LANES) {
+            IntVector.fromArray(SPECIES, arr, i).rearrange(shuffle).intoArray(arr, i);
+        }
+        // Tail shorter than a vector (and the last, shorter group)
+        scalar.reverseGroups(arr, i, to, k);
+    }
+}
@@ -0,0 +1,274 @@
+// Adaptive Merge (TimSort style) - uses the order that is already in the input instead of always splitting in the middle
+public class AdaptiveMergeSort {
+    /* Flow:
+        Walk the array and find natural runs (already ascending, or strictly descending which are reversed in place)
+        A run shorter than minRun is extended to minRun elements with insertion sort (fast, the start is already sorted)
+        Runs are pushed on a stack and merged while the stack keeps its balance rules (lengths grow like Fibonacci towards the bottom)
+        Merging skips the parts that are already in place and gallops (exponential search) when one run keeps winning
+        Sorted or nearly sorted input is one or a few runs -> close to O(n)
+     */
+    // Arrays smaller than this are insertion sorted directly
+    private static final int MIN_MERGE = 64;
+    // After this many wins in a row from one run the merge switches to galloping
+    private static final int MIN_GALLOP = 7;
+
+    public static void sort(int[] arr) {
+        sort(arr, 0, arr.length - 1);
+    }
+
+    public static void sort(int[] arr, int left, int right) {
+        int n = right - left + 1;
+        if (n < 2) {
+            return;
+        }
+        if (n < MIN_MERGE) {
+            int runLength = countRunAndMakeAscending(arr, left, right);
+            if (runLength < n) {
+                Main.insertionSort(arr, left, right);
+            }
+            return;
+        }
+        new AdaptiveMergeSort(arr, n).sortRuns(left, right);
+    }
+
+    private final int[] arr;
+    // Scratch for the left run of a merge, grows when needed
+    private int[] tmp;
+    // Stack of pending runs (start index and length), 85 is enough for any int length with the stack rules
+    private final int[] runBase = new int[85];
+    private final int[] runLength = new int[85];
+    private int stackSize = 0;
+
+    private AdaptiveMergeSort(int[] arr, int n) {
+        this.arr = arr;
+        this.tmp = new int[Math.min(256, n)];
+        SortMetrics.allocate(SortMetrics.intArrayBytes(tmp.length));
+    }
+
+    private void sortRuns(int left, int right) {
+        int minRun = minRunLength(right - left + 1);
+        int lo = left;
+        while (lo <= right) {
+            int length = countRunAndMakeAscending(arr, lo, right);
+
+            // Run too short, extend it with insertion sort (the first length elements are already in order)
+            if (length < minRun) {
+                int forced = Math.min(minRun, right - lo + 1);
+                Main.insertionSort(arr, lo, lo + forced - 1);
+                length = forced;
+            }
+
+            runBase[stackSize] = lo;
+            runLength[stackSize] = length;
+            stackSize++;
+            mergeCollapse();
+
+            lo += length;
+        }
+        // Merge whatever is left on the stack
+        while (stackSize > 1) {
+            int i = stackSize - 2;
+            if (i > 0 && runLength[i - 1] < runLength[i + 1]) {
+                i--;
+            }
+            mergeAt(i);
+        }
+    }
+
+    // Length of the run starting at lo, a strictly descending run is reversed (strict, so equal elements keep their order)
+    private static int countRunAndMakeAscending(int[] arr, int lo, int right) {
+        int i = lo + 1;
+        if (i > right) {
+            return 1;
+        }
+        if (arr[i] < arr[lo]) {
+            while (i < right && arr[i + 1] < arr[i]) {
+                i++;
+            }
+            reverse(arr, lo, i);
+        } else {
+            while (i < right && arr[i + 1] >= arr[i]) {
+                i++;
+            }
+        }
+        return i - lo + 1;
+    }
+
+    private static void reverse(int[] arr, int lo, int hi) {
+        while (lo < hi) {
+            int temp = arr[lo];
+            arr[lo++] = arr[hi];
+            arr[hi--] = temp;
+        }
+    }
+
+    // Between 32 and 64, chosen so n / minRun is (close to) a power of two -> balanced merges at the end
+    private static int minRunLength(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= n & 1;
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    /* Keeps the stack balanced, for the top runs X, Y, Z (Z on top):
+        X > Y + Z and Y > Z, otherwise merge Y with the smaller of X and Z
+        The rule is also checked one level deeper (W > X + Y), the original TimSort missed that case
+     */
+    private void mergeCollapse() {
+        while (stackSize > 1) {
+            int i = stackSize - 2;
+            if ((i > 0 && runLength[i - 1] <= runLength[i] + runLength[i + 1])
+                    || (i > 1 && runLength[i - 2] <= runLength[i - 1] + runLength[i])) {
+                if (runLength[i - 1] < runLength[i + 1]) {
+                    i--;
+                }
+            } else if (runLength[i] > runLength[i + 1]) {
+                break;
+            }
+            mergeAt(i);
+        }
+    }
+
+    // Merges run i with run i + 1
+    private void mergeAt(int i) {
+        int base1 = runBase[i], length1 = runLength[i];
+        int base2 = runBase[i + 1], length2 = runLength[i + 1];
+
+        runLength[i] = length1 + length2;
+        // Drop run i + 1 from the stack (move the run above it down)
+        if (i == stackSize - 3) {
+            runBase[i + 1] = runBase[i + 2];
+            runLength[i + 1] = runLength[i + 2];
+        }
+        stackSize--;
+
+        // Elements at the start of run 1 that are <= the first of run 2 are already in place
+        int k = gallopRight(arr[base2], arr, base1, length1);
+        base1 += k;
+        length1 -= k;
+        if (length1 == 0) {
+            return;
+        }
+        // Elements at the end of run 2 that are >= the last of run 1 are already in place
+        length2 = gallopLeft(arr[base1 + length1 - 1], arr, base2, length2);
+        if (length2 == 0) {
+            return;
+        }
+        merge(base1, length1, base2, length2);
+    }
+
+    // Copies run 1 into tmp and merges it with run 2 back into arr, front to back
+    private void merge(int base1, int length1, int base2, int length2) {
+        if (tmp.length < length1) {
+            tmp = new int[Math.max(length1, Math.min(arr.length, tmp.length * 2))];
+            SortMetrics.allocate(SortMetrics.intArrayBytes(tmp.length));
+        }
+        System.arraycopy(arr, base1, tmp, 0, length1);
+        // Every element of both runs is written once more below (block copies included)
+        SortMetrics.move(length1 + length1 + length2);
+
+        // Pointer: i - run 1 (in tmp), j - run 2 (in arr), k - destination (in arr, always behind j)
+        int i = 0, j = base2, k = base1;
+        int end2 = base2 + length2;
+        outer:
+        while (true) {
+            // One at a time, count how often each run wins in a row
+            int wins1 = 0, wins2 = 0;
+            do {
+                // Strictly smaller, on ties run 1 goes first (stable)
+                if (SortMetrics.compared(arr[j] < tmp[i])) {
+                    arr[k++] = arr[j++];
+                    wins2++;
+                    wins1 = 0;
+                    if (j == end2) break outer;
+                } else {
+                    arr[k++] = tmp[i++];
+                    wins1++;
+                    wins2 = 0;
+                    if (i == length1) break outer;
+                }
+            } while ((wins1 | wins2) < MIN_GALLOP);
+
+            // Galloping, find how many elements in a row come from the same run and copy them as a block
+            do {
+                wins1 = gallopRight(arr[j], tmp, i, length1 - i);
+                if (wins1 > 0) {
+                    System.arraycopy(tmp, i, arr, k, wins1);
+                    i += wins1;
+                    k += wins1;
+                    if (i == length1) break outer;
+                }
+                arr[k++] = arr[j++];
+                if (j == end2) break outer;
+
+                wins2 = gallopLeft(tmp[i], arr, j, end2 - j);
+                if (wins2 > 0) {
+                    // Overlapping copy inside arr (k < j), arraycopy handles that
+                    System.arraycopy(arr, j, arr, k, wins2);
+                    j += wins2;
+                    k += wins2;
+                    if (j == end2) break outer;
+                }
+                arr[k++] = tmp[i++];
+                if (i == length1) break outer;
+            } while (wins1 >= MIN_GALLOP || wins2 >= MIN_GALLOP);
+        }
+        // Run 2 is used up, copy the rest of run 1 (if run 1 is used up, the rest of run 2 is already in place)
+        if (i < length1) {
+            System.arraycopy(tmp, i, arr, k, length1 - i);
+        }
+    }
+
+    // Number of elements in a[base..base+length) that are <= key (a is sorted)
+    private static int gallopRight(int key, int[] a, int base, int length) {
+        // Exponential search: check 1, 3, 7, 15 ... elements, then binary search the last step
+        int lastOffset = 0, offset = 1;
+        while (offset < length && SortMetrics.compared(a[base + offset - 1] <= key)) {
+            lastOffset = offset;
+            offset = (offset << 1) + 1;
+            if (offset <= 0) {
+                offset = length;
+            }
+        }
+        if (offset > length) {
+            offset = length;
+        }
+        int lo = lastOffset, hi = offset;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (SortMetrics.compared(a[base + mid] <= key)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Number of elements in a[base..base+length) that are < key (a is sorted)
+    private static int gallopLeft(int key, int[] a, int base, int length) {
+        int lastOffset = 0, offset = 1;
+        while (offset < length && SortMetrics.compared(a[base + offset - 1] < key)) {
+            lastOffset = offset;
+            offset = (offset << 1) + 1;
+            if (offset <= 0) {
+                offset = length;
+            }
+        }
+        if (offset > length) {
+            offset = length;
+        }
+        int lo = lastOffset, hi = offset;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (SortMetrics.compared(a[base + mid] < key)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,139 @@
+// Block Quick Sort - quick sort whose partition has no branch that depends on the data (BlockQuicksort, Edelkamp and Weiss)
+public class BlockQuickSort {
+    /* Why: in partition() the "if (arr[j] <= pivot)" is a coin flip on random data, the CPU guesses wrong about half the time
+       Here the comparisons only write an offset and add 0 or 1 to a counter, the swaps happen afterwards in a batch */
+    // Elements looked at per block, the offsets of one block fit in a small int[] (stays in L1 cache)
+    static final int BLOCK = 128;
+
+    public static void sort(int[] arr) {
+        sort(arr, 0, arr.length - 1);
+    }
+
+    public static void sort(int[] arr, int left, int right) {
+        if (left < right) {
+            int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(right - left + 1));
+            // Offset buffers are allocated once per sort and shared by every partition
+            SortMetrics.allocate(2 * SortMetrics.intArrayBytes(BLOCK));
+            quickSort(arr, left, right, depthLimit, new int[BLOCK], new int[BLOCK]);
+        }
+    }
+
+    private static void quickSort(int[] arr, int left, int right, int depthLimit, int[] offsetsL, int[] offsetsR) {
+        SortMetrics.enter();
+        try {
+            while (right - left >= SmallSort.THRESHOLD) {
+                if (depthLimit-- == 0) {
+                    Main.heapSort(arr, left, right);
+                    return;
+                }
+                // Median of three as pivot, moved to arr[right] where partition expects it (same place as Main.partition)
+                int mid = (left + right) >>> 1;
+                swap(arr, medianOf3(arr, left, mid, right), right);
+
+                int p = partition(arr, left, right, offsetsL, offsetsR);
+
+                // Recursively sort the smaller side, continue with the bigger side
+                if (p - left < right - p) {
+                    quickSort(arr, left, p - 1, depthLimit, offsetsL, offsetsR);
+                    left = p + 1;
+                } else {
+                    quickSort(arr, p + 1, right, depthLimit, offsetsL, offsetsR);
+                    right = p - 1;
+                }
+            }
+            SmallSort.sort(arr, left, right);
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    // Same contract as Main.partition: pivot is arr[right], returns its final index p (arr[left..p-1] <= pivot <= arr[p+1..right])
+    static int partition(int[] arr, int left, int right) {
+        return partition(arr, left, right, new int[BLOCK], new int[BLOCK]);
+    }
+
+    static int partition(int[] arr, int left, int right, int[] offsetsL, int[] offsetsR) {
+        /* Flow:
+            l scans blocks from the left, r scans blocks from the right (pivot stays at arr[right] until the end)
+            Left block: write the offset of every element, count only those >= pivot (they belong on the right)
+            Right block: same for elements <= pivot (they belong on the left)
+            Swap as many pairs as both blocks have, a block that is used up moves on to the next one
+            When less than two blocks are left, finish with a branchless Lomuto loop and put the pivot in between
+         */
+        int pivot = arr[right];
+        int l = left;
+        int r = right - 1;
+        int numL = 0, numR = 0, startL = 0, startR = 0;
+
+        while (r - l + 1 > 2 * BLOCK) {
+            if (numL == 0) {
+                startL = 0;
+                for (int i = 0; i < BLOCK; i++) {
+                    // Always written, only kept when the counter moves - no branch
+                    offsetsL[numL] = i;
+                    numL += arr[l + i] >= pivot ? 1 : 0;
+                }
+                // Counted per block, a call inside the loop would be a branch the JIT has to prove away
+                SortMetrics.compare(BLOCK);
+            }
+            if (numR == 0) {
+                startR = 0;
+                for (int i = 0; i < BLOCK; i++) {
+                    offsetsR[numR] = i;
+                    numR += pivot >= arr[r - i] ? 1 : 0;
+                }
+                SortMetrics.compare(BLOCK);
+            }
+
+            // Swap the misplaced elements of both blocks pairwise
+            int num = Math.min(numL, numR);
+            for (int j = 0; j < num; j++) {
+                swap(arr, l + offsetsL[startL + j], r - offsetsR[startR + j]);
+            }
+            numL -= num;
+            numR -= num;
+            startL += num;
+            startR += num;
+
+            // A block without misplaced elements left is done
+            if (numL == 0) {
+                l += BLOCK;
+            }
+            if (numR == 0) {
+                r -= BLOCK;
+            }
+        }
+
+        // arr[left..l-1] <= pivot, arr[r+1..right-1] >= pivot, arr[l..r] is not partitioned yet
+        // Branchless Lomuto: always swap, only move the boundary i when the element is smaller than the pivot
+        int i = l;
+        for (int j = l; j <= r; j++) {
+            int value = arr[j];
+            arr[j] = arr[i];
+            arr[i] = value;
+            i += value < pivot ? 1 : 0;
+        }
+        SortMetrics.compare(r - l + 1);
+        SortMetrics.move(2 * (r - l + 1));
+
+        // Put the pivot between both parts
+        swap(arr, i, right);
+        return i;
+    }
+
+    private static int medianOf3(int[] arr, int a, int b, int c) {
+        if (arr[a] < arr[b]) {
+            if (arr[b] < arr[c]) return b;
+            return arr[a] < arr[c] ? c : a;
+        }
+        if (arr[a] < arr[c]) return a;
+        return arr[b] < arr[c] ? c : b;
+    }
+
+    private static void swap(int[] arr, int i, int j) {
+        int temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+        SortMetrics.swap();
+    }
+}
@@ -0,0 +1,49 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+// Sorts double[] (or a range of it) in place, picked by name like IntSorter
+// Order is the same as Arrays.sort: -Infinity .. -0.0 < 0.0 .. Infinity, NaN last
+@FunctionalInterface
+public interface DoubleSorter {
+    List<String> ALGORITHMS = List.of("intro", "radix", "parallelRadix", "jdk", "jdkParallel");
+
+    // Sorts arr[from..to) - to is exclusive
+    void sort(double[] arr, int from, int to);
+
+    default void sort(double[] arr) {
+        sort(arr, 0, arr.length);
+    }
+
+    static DoubleSorter of(String algorithm) {
+        DoubleSorter sorter = switch (algorithm) {
+            case "intro", "radix", "parallelRadix" -> viaLongs(LongSorter.of(algorithm));
+            case "jdk" -> (arr, from, to) -> Arrays.sort(arr, from, to);
+            case "jdkParallel" -> (arr, from, to) -> Arrays.parallelSort(arr, from, to);
+            default -> throw new IllegalArgumentException("Unknown algorithm: " + algorithm + ", expected one of " + ALGORITHMS);
+        };
+        // Counting wrapper when started with -Dsort.metrics=true
+        return SortMetrics.ENABLED ? SortMetrics.instrumentDouble(algorithm, sorter) : sorter;
+    }
+
+    /* Sort the doubles as longs:
+        The bits of a positive double already compare like a long
+        For a negative double flip every bit but the sign, then bigger magnitude -> smaller long
+        doubleToLongBits turns every NaN into the one positive NaN, which ends up after Infinity
+     */
+    private static DoubleSorter viaLongs(LongSorter sorter) {
+        return (arr, from, to) -> {
+            Objects.checkFromToIndex(from, to, arr.length);
+            long[] keys = new long[to - from];
+            for (int i = 0; i < keys.length; i++) {
+                long bits = Double.doubleToLongBits(arr[from + i]);
+                keys[i] = bits ^ ((bits >> 63) & Long.MAX_VALUE);
+            }
+            sorter.sort(keys);
+            for (int i = 0; i < keys.length; i++) {
+                long key = keys[i];
+                arr[from + i] = Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+            }
+        };
+    }
+}
@@ -0,0 +1,350 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// External Merge Sort - sorts a file of fixed-width int/long records (big-endian) that does not fit in the heap
+public class ExternalMergeSort {
+    /* Flow:
+        Map runSize records of the input at a time, copy them into an array, sort it in memory (radix sort)
+        Spill the sorted array to a memory-mapped temp file (a "run")
+        k-way merge: a min heap holds the current head of every run, take the smallest, advance that run, repeat
+        At most MAX_FAN_IN runs are open at once - with more, groups of MAX_FAN_IN runs are merged into longer runs first
+        Every mapping lives in its own confined Arena: closing it unmaps the file right away (not when the GC runs),
+        so at most MAX_FAN_IN + 1 files are mapped at any time, however many runs there are
+        Only one chunk of runSize records plus the page cache is ever used, whatever the file size
+     */
+    // 16M records per run (64MB of ints / 128MB of longs, plus the same again for the radix scratch array)
+    public static final int DEFAULT_RUN_SIZE = 1 << 24;
+    // Runs merged at once (open mappings)
+    public static final int MAX_FAN_IN = 128;
+    // Two merge passes at most, a runSize that gives more runs than this is rejected
+    public static final long MAX_RUNS = (long) MAX_FAN_IN * MAX_FAN_IN;
+    // Size of the buffer the merged output is written through
+    private static final int OUTPUT_BUFFER_BYTES = 1 << 20;
+    // Records are big-endian, mapped windows of the input start at any record
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    public static void sortInts(Path input, Path output) throws IOException {
+        sortInts(input, output, DEFAULT_RUN_SIZE, defaultTempDir(output));
+    }
+
+    public static void sortInts(Path input, Path output, int runSize, Path tempDir) throws IOException {
+        // Every temp file ever created, so a failure in any pass still deletes them all
+        List<Path> temp = new ArrayList<>();
+        try {
+            List<Path> runs = new ArrayList<>();
+            try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+                long records = recordCount(in.size(), Integer.BYTES, input);
+                checkRunSize(runSize, Integer.BYTES, records);
+                // Arrays are reused by every run
+                int[] chunk = new int[(int) Math.min(runSize, records)];
+                int[] scratch = new int[chunk.length];
+                int[] histogram = new int[RadixSort.INT_HISTOGRAM_SIZE];
+                for (long start = 0; start < records; start += runSize) {
+                    int count = (int) Math.min(runSize, records - start);
+                    try (Arena arena = Arena.ofConfined()) {
+                        MemorySegment window = in.map(FileChannel.MapMode.READ_ONLY, start * Integer.BYTES, (long) count * Integer.BYTES, arena);
+                        MemorySegment.copy(window, INT, 0, chunk, 0, count);
+                    }
+                    RadixSort.sort(chunk, 0, count - 1, scratch, histogram);
+
+                    Path run = Files.createTempFile(tempDir, "run-", ".bin");
+                    temp.add(run);
+                    runs.add(run);
+                    try (Arena arena = Arena.ofConfined()) {
+                        MemorySegment.copy(chunk, 0, mapForWrite(run, (long) count * Integer.BYTES, arena), INT, 0, count);
+                    }
+                }
+            }
+            // Earlier passes: MAX_FAN_IN runs -> one longer run
+            while (runs.size() > MAX_FAN_IN) {
+                List<Path> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                    Path run = Files.createTempFile(tempDir, "run-", ".bin");
+                    temp.add(run);
+                    merged.add(run);
+                    List<Path> group = runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size()));
+                    mergeIntRuns(group, run);
+                    // Free the disk space as soon as possible
+                    deleteRuns(group);
+                }
+                runs = merged;
+            }
+            mergeIntRuns(runs, output);
+        } finally {
+            deleteRuns(temp);
+        }
+    }
+
+    public static void sortLongs(Path input, Path output) throws IOException {
+        sortLongs(input, output, DEFAULT_RUN_SIZE, defaultTempDir(output));
+    }
+
+    public static void sortLongs(Path input, Path output, int runSize, Path tempDir) throws IOException {
+        // Same as sortInts with 8 byte records
+        List<Path> temp = new ArrayList<>();
+        try {
+            List<Path> runs = new ArrayList<>();
+            try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+                long records = recordCount(in.size(), Long.BYTES, input);
+                checkRunSize(runSize, Long.BYTES, records);
+                long[] chunk = new long[(int) Math.min(runSize, records)];
+                long[] scratch = new long[chunk.length];
+                int[] histogram = new int[RadixSort.LONG_HISTOGRAM_SIZE];
+                for (long start = 0; start < records; start += runSize) {
+                    int count = (int) Math.min(runSize, records - start);
+                    try (Arena arena = Arena.ofConfined()) {
+                        MemorySegment window = in.map(FileChannel.MapMode.READ_ONLY, start * Long.BYTES, (long) count * Long.BYTES, arena);
+                        MemorySegment.copy(window, LONG, 0, chunk, 0, count);
+                    }
+                    RadixSort.sort(chunk, 0, count - 1, scratch, histogram);
+
+                    Path run = Files.createTempFile(tempDir, "run-", ".bin");
+                    temp.add(run);
+                    runs.add(run);
+                    try (Arena arena = Arena.ofConfined()) {
+                        MemorySegment.copy(chunk, 0, mapForWrite(run, (long) count * Long.BYTES, arena), LONG, 0, count);
+                    }
+                }
+            }
+            while (runs.size() > MAX_FAN_IN) {
+                List<Path> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                    Path run = Files.createTempFile(tempDir, "run-", ".bin");
+                    temp.add(run);
+                    merged.add(run);
+                    List<Path> group = runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size()));
+                    mergeLongRuns(group, run);
+                    deleteRuns(group);
+                }
+                runs = merged;
+            }
+            mergeLongRuns(runs, output);
+        } finally {
+            deleteRuns(temp);
+        }
+    }
+
+    // A sorted run being merged, head is its smallest element not written yet
+    private static class IntRun implements Closeable {
+        // Owns the mapping, closed (unmapped) as soon as the run is used up
+        final Arena arena = Arena.ofConfined();
+        // The whole run file, merged runs can be bigger than the 2GB a MappedByteBuffer can hold
+        final MemorySegment segment;
+        // Byte offset of the next element
+        long position;
+        int head;
+
+        IntRun(Path file) throws IOException {
+            this.segment = mapForRead(file, arena);
+        }
+
+        // Moves to the next element, false when the run is used up
+        boolean advance() {
+            if (position == segment.byteSize()) {
+                close();
+                return false;
+            }
+            head = segment.get(INT, position);
+            position += Integer.BYTES;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // Closing twice is fine, the arena is only closed once
+            if (arena.scope().isAlive()) {
+                arena.close();
+            }
+        }
+    }
+
+    private static class LongRun implements Closeable {
+        final Arena arena = Arena.ofConfined();
+        final MemorySegment segment;
+        long position;
+        long head;
+
+        LongRun(Path file) throws IOException {
+            this.segment = mapForRead(file, arena);
+        }
+
+        boolean advance() {
+            if (position == segment.byteSize()) {
+                close();
+                return false;
+            }
+            head = segment.get(LONG, position);
+            position += Long.BYTES;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            if (arena.scope().isAlive()) {
+                arena.close();
+            }
+        }
+    }
+
+    // runs.size() <= MAX_FAN_IN
+    private static void mergeIntRuns(List<Path> runs, Path output) throws IOException {
+        // Min heap by the head of each run, k runs -> O(log k) per element
+        PriorityQueue<IntRun> heap = new PriorityQueue<>(Math.max(1, runs.size()), Comparator.comparingInt((IntRun r) -> r.head));
+        List<IntRun> open = new ArrayList<>(runs.size());
+        try {
+            for (Path run : runs) {
+                IntRun r = new IntRun(run);
+                open.add(r);
+                if (r.advance()) {
+                    heap.add(r);
+                }
+            }
+            try (FileChannel out = openOutput(output)) {
+                ByteBuffer bytes = ByteBuffer.allocateDirect(OUTPUT_BUFFER_BYTES);
+                IntBuffer ints = bytes.asIntBuffer();
+                while (!heap.isEmpty()) {
+                    IntRun smallest = heap.poll();
+                    // Keep taking from the same run while it is still the smallest (common when runs barely overlap)
+                    int limit = heap.isEmpty() ? Integer.MAX_VALUE : heap.peek().head;
+                    boolean more;
+                    do {
+                        if (!ints.hasRemaining()) {
+                            flush(out, bytes, ints.position() * Integer.BYTES);
+                            ints.clear();
+                        }
+                        ints.put(smallest.head);
+                        more = smallest.advance();
+                    } while (more && smallest.head <= limit);
+                    if (more) {
+                        heap.add(smallest);
+                    }
+                }
+                flush(out, bytes, ints.position() * Integer.BYTES);
+            }
+        } finally {
+            // Runs that are used up are already unmapped, this is for the ones left when something failed
+            for (IntRun r : open) {
+                r.close();
+            }
+        }
+    }
+
+    private static void mergeLongRuns(List<Path> runs, Path output) throws IOException {
+        PriorityQueue<LongRun> heap = new PriorityQueue<>(Math.max(1, runs.size()), Comparator.comparingLong((LongRun r) -> r.head));
+        List<LongRun> open = new ArrayList<>(runs.size());
+        try {
+            for (Path run : runs) {
+                LongRun r = new LongRun(run);
+                open.add(r);
+                if (r.advance()) {
+                    heap.add(r);
+                }
+            }
+            try (FileChannel out = openOutput(output)) {
+                ByteBuffer bytes = ByteBuffer.allocateDirect(OUTPUT_BUFFER_BYTES);
+                LongBuffer longs = bytes.asLongBuffer();
+                while (!heap.isEmpty()) {
+                    LongRun smallest = heap.poll();
+                    long limit = heap.isEmpty() ? Long.MAX_VALUE : heap.peek().head;
+                    boolean more;
+                    do {
+                        if (!longs.hasRemaining()) {
+                            flush(out, bytes, longs.position() * Long.BYTES);
+                            longs.clear();
+                        }
+                        longs.put(smallest.head);
+                        more = smallest.advance();
+                    } while (more && smallest.head <= limit);
+                    if (more) {
+                        heap.add(smallest);
+                    }
+                }
+                flush(out, bytes, longs.position() * Long.BYTES);
+            }
+        } finally {
+            for (LongRun r : open) {
+                r.close();
+            }
+        }
+    }
+
+    // The mapping is released when arena is closed, the channel can be closed right away
+    private static MemorySegment mapForRead(Path file, Arena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+        }
+    }
+
+    private static MemorySegment mapForWrite(Path file, long size, Arena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping past the end grows the file to size
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+        }
+    }
+
+    // Writes the first length bytes of the buffer (the int/long view does not move the byte buffer's position)
+    private static void flush(FileChannel out, ByteBuffer bytes, int length) throws IOException {
+        bytes.clear().limit(length);
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+    }
+
+    private static FileChannel openOutput(Path output) throws IOException {
+        return FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static long recordCount(long bytes, int width, Path input) {
+        if (bytes % width != 0) {
+            throw new IllegalArgumentException(input + " size " + bytes + " is not a multiple of the record width " + width);
+        }
+        return bytes / width;
+    }
+
+    private static void checkRunSize(int runSize, int width, long records) {
+        // A run is one array (plus its scratch array) in the heap
+        if (runSize < 1 || (long) runSize * width > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("runSize out of range: " + runSize);
+        }
+        // Every run is a temp file, too many of them means too many files and merge passes
+        long runs = (records + runSize - 1) / runSize;
+        if (runs > MAX_RUNS) {
+            long minimum = (records + MAX_RUNS - 1) / MAX_RUNS;
+            throw new IllegalArgumentException("runSize " + runSize + " gives " + runs + " runs for " + records
+                                               + " records, at most " + MAX_RUNS + " (runSize >= " + minimum + ")");
+        }
+    }
+
+    private static Path defaultTempDir(Path output) {
+        // Next to the output, the system temp dir is often a small tmpfs
+        Path parent = output.toAbsolutePath().getParent();
+        return parent != null ? parent : Path.of(System.getProperty("java.io.tmpdir"));
+    }
+
+    private static void deleteRuns(List<Path> runs) {
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                // Try again when the JVM exits
+                run.toFile().deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,429 @@
+import java.util.Arrays;
+
+// Index Sort - sort records by an int/long key while other arrays stay aligned, without Integer[] or boxing comparators
+public class IndexSort {
+    /* Two ways:
+        argsort - sorts the indexes 0..n-1 by key (Main.mergeSortBuffered flow on an int[] of indexes), keys are not touched
+                  stable, and the result can reorder any number of parallel arrays with permute()
+        sort(keys, values) - IntroSort flow on the keys, every swap/move of a key does the same on the values
+                  in place and no extra memory, but not stable
+     */
+    private static final int INSERTION_THRESHOLD = IntroSort.INSERTION_THRESHOLD;
+
+    // perm[i] is the index of the i-th smallest key, equal keys keep their original order (stable)
+    public static int[] argsort(int[] keys) {
+        int n = keys.length;
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            perm[i] = i;
+        }
+        if (n > 1) {
+            // Both hold the identity at the start, then take turns as source and destination like in mergeSortBuffered
+            int[] buffer = perm.clone();
+            SortMetrics.allocate(2 * SortMetrics.intArrayBytes(n));
+            sortIndexesInto(keys, buffer, perm, 0, n - 1);
+        }
+        return perm;
+    }
+
+    // Sorts src[lo..hi] into dst[lo..hi] (both hold the same indexes on entry)
+    private static void sortIndexesInto(int[] keys, int[] src, int[] dst, int lo, int hi) {
+        if (hi - lo < INSERTION_THRESHOLD) {
+            insertionSortIndexes(keys, dst, lo, hi);
+            return;
+        }
+        SortMetrics.enter();
+        try {
+            int mid = (lo + hi) >>> 1;
+            sortIndexesInto(keys, dst, src, lo, mid);
+            sortIndexesInto(keys, dst, src, mid + 1, hi);
+
+            if (SortMetrics.compared(keys[src[mid]] <= keys[src[mid + 1]])) {
+                System.arraycopy(src, lo, dst, lo, hi - lo + 1);
+            } else {
+                int i = lo, j = mid + 1, k = lo;
+                while (i <= mid && j <= hi) {
+                    // <= keeps the left index first on equal keys (stable)
+                    if (SortMetrics.compared(keys[src[i]] <= keys[src[j]])) {
+                        dst[k++] = src[i++];
+                    } else {
+                        dst[k++] = src[j++];
+                    }
+                }
+                if (i <= mid) {
+                    System.arraycopy(src, i, dst, k, mid - i + 1);
+                } else if (j <= hi) {
+                    System.arraycopy(src, j, dst, k, hi - j + 1);
+                }
+            }
+            SortMetrics.move(hi - lo + 1);
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    private static void insertionSortIndexes(int[] keys, int[] perm, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int index = perm[i];
+            int key = keys[index];
+            int j = i - 1;
+            while (j >= left && SortMetrics.compared(keys[perm[j]] > key)) {
+                perm[j + 1] = perm[j];
+                j--;
+                SortMetrics.move(1);
+            }
+            perm[j + 1] = index;
+            SortMetrics.move(1);
+        }
+    }
+
+    // Same for long keys (timestamps), only the comparisons differ
+    public static int[] argsort(long[] keys) {
+        int n = keys.length;
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            perm[i] = i;
+        }
+        if (n > 1) {
+            int[] buffer = perm.clone();
+            SortMetrics.allocate(2 * SortMetrics.intArrayBytes(n));
+            sortIndexesInto(keys, buffer, perm, 0, n - 1);
+        }
+        return perm;
+    }
+
+    private static void sortIndexesInto(long[] keys, int[] src, int[] dst, int lo, int hi) {
+        if (hi - lo < INSERTION_THRESHOLD) {
+            insertionSortIndexes(keys, dst, lo, hi);
+            return;
+        }
+        SortMetrics.enter();
+        try {
+            int mid = (lo + hi) >>> 1;
+            sortIndexesInto(keys, dst, src, lo, mid);
+            sortIndexesInto(keys, dst, src, mid + 1, hi);
+
+            if (SortMetrics.compared(keys[src[mid]] <= keys[src[mid + 1]])) {
+                System.arraycopy(src, lo, dst, lo, hi - lo + 1);
+            } else {
+                int i = lo, j = mid + 1, k = lo;
+                while (i <= mid && j <= hi) {
+                    if (SortMetrics.compared(keys[src[i]] <= keys[src[j]])) {
+                        dst[k++] = src[i++];
+                    } else {
+                        dst[k++] = src[j++];
+                    }
+                }
+                if (i <= mid) {
+                    System.arraycopy(src, i, dst, k, mid - i + 1);
+                } else if (j <= hi) {
+                    System.arraycopy(src, j, dst, k, hi - j + 1);
+                }
+            }
+            SortMetrics.move(hi - lo + 1);
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    private static void insertionSortIndexes(long[] keys, int[] perm, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int index = perm[i];
+            long key = keys[index];
+            int j = i - 1;
+            while (j >= left && SortMetrics.compared(keys[perm[j]] > key)) {
+                perm[j + 1] = perm[j];
+                j--;
+                SortMetrics.move(1);
+            }
+            perm[j + 1] = index;
+            SortMetrics.move(1);
+        }
+    }
+
+    // Returns a copy of arr in the order of perm (result[i] = arr[perm[i]]), for every parallel array of the records
+    public static int[] permute(int[] arr, int[] perm) {
+        checkLength(arr.length, perm.length);
+        int[] result = new int[perm.length];
+        for (int i = 0; i < perm.length; i++) {
+            result[i] = arr[perm[i]];
+        }
+        return result;
+    }
+
+    public static long[] permute(long[] arr, int[] perm) {
+        checkLength(arr.length, perm.length);
+        long[] result = new long[perm.length];
+        for (int i = 0; i < perm.length; i++) {
+            result[i] = arr[perm[i]];
+        }
+        return result;
+    }
+
+    public static double[] permute(double[] arr, int[] perm) {
+        checkLength(arr.length, perm.length);
+        double[] result = new double[perm.length];
+        for (int i = 0; i < perm.length; i++) {
+            result[i] = arr[perm[i]];
+        }
+        return result;
+    }
+
+    public static <T> T[] permute(T[] arr, int[] perm) {
+        checkLength(arr.length, perm.length);
+        // Same runtime type as arr
+        T[] result = Arrays.copyOf(arr, perm.length);
+        for (int i = 0; i < perm.length; i++) {
+            result[i] = arr[perm[i]];
+        }
+        return result;
+    }
+
+    // Sorts keys and moves values[i] along with keys[i] (co-sort), not stable
+    public static void sort(int[] keys, int[] values) {
+        checkLength(keys.length, values.length);
+        sort(keys, values, 0, keys.length - 1);
+    }
+
+    public static void sort(int[] keys, int[] values, int left, int right) {
+        if (left < right) {
+            int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(right - left + 1));
+            introSort(keys, values, left, right, depthLimit);
+        }
+    }
+
+    private static void introSort(int[] keys, int[] values, int left, int right, int depthLimit) {
+        SortMetrics.enter();
+        try {
+            while (right - left + 1 > INSERTION_THRESHOLD) {
+                if (depthLimit-- == 0) {
+                    heapSort(keys, values, left, right);
+                    return;
+                }
+                int p = partition(keys, values, left, right);
+                if (p - left < right - p) {
+                    introSort(keys, values, left, p, depthLimit);
+                    left = p + 1;
+                } else {
+                    introSort(keys, values, p + 1, right, depthLimit);
+                    right = p;
+                }
+            }
+            insertionSort(keys, values, left, right);
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    // Hoare partition (same as IntroSort), returns p where keys[left..p] <= pivot <= keys[p+1..right]
+    private static int partition(int[] keys, int[] values, int left, int right) {
+        int mid = (left + right) >>> 1;
+        swap(keys, values, mid, medianOf3(keys, left, mid, right));
+        int pivot = keys[mid];
+
+        int i = left - 1;
+        int j = right + 1;
+        while (true) {
+            do {
+                i++;
+            } while (SortMetrics.compared(keys[i] < pivot));
+            do {
+                j--;
+            } while (SortMetrics.compared(keys[j] > pivot));
+
+            if (i >= j) {
+                return j;
+            }
+            swap(keys, values, i, j);
+        }
+    }
+
+    private static void heapSort(int[] keys, int[] values, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(keys, values, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(keys, values, left, left + end);
+            siftDown(keys, values, left, 0, end);
+        }
+    }
+
+    private static void siftDown(int[] keys, int[] values, int base, int i, int n) {
+        int key = keys[base + i];
+        int value = values[base + i];
+        int child;
+        while ((child = 2 * i + 1) < n) {
+            if (child + 1 < n && SortMetrics.compared(keys[base + child + 1] > keys[base + child])) {
+                child++;
+            }
+            if (SortMetrics.compared(keys[base + child] <= key)) {
+                break;
+            }
+            keys[base + i] = keys[base + child];
+            values[base + i] = values[base + child];
+            SortMetrics.move(1);
+            i = child;
+        }
+        keys[base + i] = key;
+        values[base + i] = value;
+    }
+
+    private static void insertionSort(int[] keys, int[] values, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int key = keys[i];
+            int value = values[i];
+            int j = i - 1;
+            while (j >= left && SortMetrics.compared(keys[j] > key)) {
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                j--;
+                SortMetrics.move(1);
+            }
+            keys[j + 1] = key;
+            values[j + 1] = value;
+            SortMetrics.move(1);
+        }
+    }
+
+    private static int medianOf3(int[] keys, int a, int b, int c) {
+        if (keys[a] < keys[b]) {
+            if (keys[b] < keys[c]) return b;
+            return keys[a] < keys[c] ? c : a;
+        }
+        if (keys[a] < keys[c]) return a;
+        return keys[b] < keys[c] ? c : b;
+    }
+
+    private static void swap(int[] keys, int[] values, int i, int j) {
+        int tempKey = keys[i];
+        keys[i] = keys[j];
+        keys[j] = tempKey;
+        int tempValue = values[i];
+        values[i] = values[j];
+        values[j] = tempValue;
+        SortMetrics.swap();
+    }
+
+    // Same co-sort with a long payload (ids, timestamps, packed fields)
+    public static void sort(int[] keys, long[] values) {
+        checkLength(keys.length, values.length);
+        sort(keys, values, 0, keys.length - 1);
+    }
+
+    public static void sort(int[] keys, long[] values, int left, int right) {
+        if (left < right) {
+            int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(right - left + 1));
+            introSort(keys, values, left, right, depthLimit);
+        }
+    }
+
+    private static void introSort(int[] keys, long[] values, int left, int right, int depthLimit) {
+        SortMetrics.enter();
+        try {
+            while (right - left + 1 > INSERTION_THRESHOLD) {
+                if (depthLimit-- == 0) {
+                    heapSort(keys, values, left, right);
+                    return;
+                }
+                int p = partition(keys, values, left, right);
+                if (p - left < right - p) {
+                    introSort(keys, values, left, p, depthLimit);
+                    left = p + 1;
+                } else {
+                    introSort(keys, values, p + 1, right, depthLimit);
+                    right = p;
+                }
+            }
+            insertionSort(keys, values, left, right);
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    private static int partition(int[] keys, long[] values, int left, int right) {
+        int mid = (left + right) >>> 1;
+        swap(keys, values, mid, medianOf3(keys, left, mid, right));
+        int pivot = keys[mid];
+
+        int i = left - 1;
+        int j = right + 1;
+        while (true) {
+            do {
+                i++;
+            } while (SortMetrics.compared(keys[i] < pivot));
+            do {
+                j--;
+            } while (SortMetrics.compared(keys[j] > pivot));
+
+            if (i >= j) {
+                return j;
+            }
+            swap(keys, values, i, j);
+        }
+    }
+
+    private static void heapSort(int[] keys, long[] values, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(keys, values, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(keys, values, left, left + end);
+            siftDown(keys, values, left, 0, end);
+        }
+    }
+
+    private static void siftDown(int[] keys, long[] values, int base, int i, int n) {
+        int key = keys[base + i];
+        long value = values[base + i];
+        int child;
+        while ((child = 2 * i + 1) < n) {
+            if (child + 1 < n && SortMetrics.compared(keys[base + child + 1] > keys[base + child])) {
+                child++;
+            }
+            if (SortMetrics.compared(keys[base + child] <= key)) {
+                break;
+            }
+            keys[base + i] = keys[base + child];
+            values[base + i] = values[base + child];
+            SortMetrics.move(1);
+            i = child;
+        }
+        keys[base + i] = key;
+        values[base + i] = value;
+    }
+
+    private static void insertionSort(int[] keys, long[] values, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int key = keys[i];
+            long value = values[i];
+            int j = i - 1;
+            while (j >= left && SortMetrics.compared(keys[j] > key)) {
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                j--;
+                SortMetrics.move(1);
+            }
+            keys[j + 1] = key;
+            values[j + 1] = value;
+            SortMetrics.move(1);
+        }
+    }
+
+    private static void swap(int[] keys, long[] values, int i, int j) {
+        int tempKey = keys[i];
+        keys[i] = keys[j];
+        keys[j] = tempKey;
+        long tempValue = values[i];
+        values[i] = values[j];
+        values[j] = tempValue;
+        SortMetrics.swap();
+    }
+
+    private static void checkLength(int expected, int actual) {
+        if (expected != actual) {
+            throw new IllegalArgumentException("length mismatch: " + expected + " != " + actual);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+// Sorts int[] (or a range of it) in place with one of the algorithms of this module, picked by name
+@FunctionalInterface
+public interface IntSorter {
+    List<String> ALGORITHMS = List.of("bubble", "insertion", "selection", "merge", "mergeBuffered", "parallelMerge", "adaptiveMerge",
+                                      "quick", "blockQuick", "quick3Way", "intro", "heap", "radix", "parallelRadix", "sample", "jdk", "jdkParallel");
+
+    // Sorts arr[from..to) - to is exclusive, like Arrays.sort (the kernels in Main take an inclusive right index)
+    void sort(int[] arr, int from, int to);
+
+    default void sort(int[] arr) {
+        sort(arr, 0, arr.length);
+    }
+
+    static IntSorter of(String algorithm) {
+        IntSorter sorter = switch (algorithm) {
+            case "bubble" -> checked(Main::bubbleSort);
+            case "insertion" -> checked(Main::insertionSort);
+            case "selection" -> checked(Main::selectionSort);
+            case "merge" -> checked(Main::mergeSort);
+            case "mergeBuffered" -> checked((arr, left, right) -> {
+                SortMetrics.allocate(SortMetrics.intArrayBytes(right - left + 1));
+                Main.mergeSortBuffered(arr, new int[right - left + 1], left, right);
+            });
+            case "parallelMerge" -> checked((arr, left, right) ->
+                    ParallelMergeSort.sort(arr, left, right, ParallelMergeSort.DEFAULT_CUTOFF, ForkJoinPool.commonPool()));
+            case "adaptiveMerge" -> checked(AdaptiveMergeSort::sort);
+            case "quick" -> checked(Main::quickSort);
+            case "blockQuick" -> checked(BlockQuickSort::sort);
+            case "quick3Way" -> checked(Main::quickSort3Way);
+            case "intro" -> checked(IntroSort::sort);
+            case "heap" -> checked(Main::heapSort);
+            case "radix" -> checked((arr, left, right) -> {
+                SortMetrics.allocate(SortMetrics.intArrayBytes(right - left + 1));
+                RadixSort.sort(arr, left, right, new int[right - left + 1]);
+            });
+            case "parallelRadix" -> checked(RadixSort::parallelSort);
+            case "sample" -> checked(SampleSort::sort);
+            case "jdk" -> (arr, from, to) -> Arrays.sort(arr, from, to);
+            case "jdkParallel" -> (arr, from, to) -> Arrays.parallelSort(arr, from, to);
+            default -> throw new IllegalArgumentException("Unknown algorithm: " + algorithm + ", expected one of " + ALGORITHMS);
+        };
+        // Counting wrapper when started with -Dsort.metrics=true
+        return SortMetrics.ENABLED ? SortMetrics.instrumentInt(algorithm, sorter) : sorter;
+    }
+
+    // Kernel signature used in this module: sorts arr[left..right] (right inclusive)
+    @FunctionalInterface
+    interface RangeKernel {
+        void sort(int[] arr, int left, int right);
+    }
+
+    private static IntSorter checked(RangeKernel kernel) {
+        return (arr, from, to) -> {
+            Objects.checkFromToIndex(from, to, arr.length);
+            if (to - from > 1) {
+                kernel.sort(arr, from, to - 1);
+            }
+        };
+    }
+}
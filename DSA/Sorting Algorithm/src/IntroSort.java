@@ -0,0 +1,235 @@
+// Intro Sort - quick sort with a better pivot, a recursion depth limit (heap sort after that) and insertion sort for small partitions
+public class IntroSort {
+    // Partitions this small are finished with insertion sort (cheaper than more partitioning)
+    static final int INSERTION_THRESHOLD = 16;
+    // From this size on the pivot is the ninther (median of three medians) instead of the median of three
+    static final int NINTHER_THRESHOLD = 128;
+
+    public static void sort(int[] arr) {
+        sort(arr, 0, arr.length - 1);
+    }
+
+    public static void sort(int[] arr, int left, int right) {
+        if (left < right) {
+            /* Flow:
+                Depth limit is 2 * log2(n), a good quick sort never gets there
+                Pick the pivot (median of 3 or ninther), so sorted/reversed input still splits in the middle
+                Partition Hoare style (equal keys are split evenly, so all-equal input is not quadratic)
+                Recurse into the smaller part, loop on the bigger one (stack depth stays O(log n))
+                Too deep -> heap sort the remaining range, small range -> insertion sort
+             */
+            int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(right - left + 1));
+            introSort(arr, left, right, depthLimit);
+        }
+    }
+
+    private static void introSort(int[] arr, int left, int right, int depthLimit) {
+        SortMetrics.enter();
+        try {
+            while (right - left + 1 > INSERTION_THRESHOLD) {
+                if (depthLimit == 0) {
+                    // Pivots keep going bad, heap sort guarantees O(n log n) for what is left
+                    Main.heapSort(arr, left, right);
+                    return;
+                }
+                depthLimit--;
+
+                int p = partition(arr, left, right);
+
+                // Recursively sort the smaller side, continue the loop with the bigger side
+                if (p - left < right - p) {
+                    introSort(arr, left, p, depthLimit);
+                    left = p + 1;
+                } else {
+                    introSort(arr, p + 1, right, depthLimit);
+                    right = p;
+                }
+            }
+            Main.insertionSort(arr, left, right);
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    // Hoare partition, returns p where arr[left..p] <= pivot <= arr[p+1..right] (left <= p < right)
+    private static int partition(int[] arr, int left, int right) {
+        int mid = (left + right) >>> 1;
+        // Place the chosen pivot in the middle, that position is what keeps p < right
+        swap(arr, mid, choosePivot(arr, left, mid, right));
+        int pivot = arr[mid];
+
+        int i = left - 1;
+        int j = right + 1;
+        while (true) {
+            // Stop on elements equal to the pivot too, so duplicates end up on both sides
+            do {
+                i++;
+            } while (SortMetrics.compared(arr[i] < pivot));
+            do {
+                j--;
+            } while (SortMetrics.compared(arr[j] > pivot));
+
+            if (i >= j) {
+                return j;
+            }
+            swap(arr, i, j);
+        }
+    }
+
+    // Index of the median of three, or of the ninther (median of the medians of three groups) on bigger ranges
+    private static int choosePivot(int[] arr, int left, int mid, int right) {
+        if (right - left + 1 < NINTHER_THRESHOLD) {
+            return medianOf3(arr, left, mid, right);
+        }
+        int step = (right - left + 1) / 8;
+        int a = medianOf3(arr, left, left + step, left + 2 * step);
+        int b = medianOf3(arr, mid - step, mid, mid + step);
+        int c = medianOf3(arr, right - 2 * step, right - step, right);
+        return medianOf3(arr, a, b, c);
+    }
+
+    private static int medianOf3(int[] arr, int a, int b, int c) {
+        if (arr[a] < arr[b]) {
+            if (arr[b] < arr[c]) return b;
+            return arr[a] < arr[c] ? c : a;
+        }
+        if (arr[a] < arr[c]) return a;
+        return arr[b] < arr[c] ? c : b;
+    }
+
+    private static void swap(int[] arr, int i, int j) {
+        int temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+        SortMetrics.swap();
+    }
+
+    // Same algorithm for long[] (64-bit keys like timestamps)
+    public static void sort(long[] arr) {
+        sort(arr, 0, arr.length - 1);
+    }
+
+    public static void sort(long[] arr, int left, int right) {
+        if (left < right) {
+            int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(right - left + 1));
+            introSort(arr, left, right, depthLimit);
+        }
+    }
+
+    private static void introSort(long[] arr, int left, int right, int depthLimit) {
+        SortMetrics.enter();
+        try {
+            while (right - left + 1 > INSERTION_THRESHOLD) {
+                if (depthLimit == 0) {
+                    heapSort(arr, left, right);
+                    return;
+                }
+                depthLimit--;
+
+                int p = partition(arr, left, right);
+                if (p - left < right - p) {
+                    introSort(arr, left, p, depthLimit);
+                    left = p + 1;
+                } else {
+                    introSort(arr, p + 1, right, depthLimit);
+                    right = p;
+                }
+            }
+            insertionSort(arr, left, right);
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    private static int partition(long[] arr, int left, int right) {
+        int mid = (left + right) >>> 1;
+        swap(arr, mid, choosePivot(arr, left, mid, right));
+        long pivot = arr[mid];
+
+        int i = left - 1;
+        int j = right + 1;
+        while (true) {
+            do {
+                i++;
+            } while (SortMetrics.compared(arr[i] < pivot));
+            do {
+                j--;
+            } while (SortMetrics.compared(arr[j] > pivot));
+
+            if (i >= j) {
+                return j;
+            }
+            swap(arr, i, j);
+        }
+    }
+
+    private static int choosePivot(long[] arr, int left, int mid, int right) {
+        if (right - left + 1 < NINTHER_THRESHOLD) {
+            return medianOf3(arr, left, mid, right);
+        }
+        int step = (right - left + 1) / 8;
+        int a = medianOf3(arr, left, left + step, left + 2 * step);
+        int b = medianOf3(arr, mid - step, mid, mid + step);
+        int c = medianOf3(arr, right - 2 * step, right - step, right);
+        return medianOf3(arr, a, b, c);
+    }
+
+    private static int medianOf3(long[] arr, int a, int b, int c) {
+        if (arr[a] < arr[b]) {
+            if (arr[b] < arr[c]) return b;
+            return arr[a] < arr[c] ? c : a;
+        }
+        if (arr[a] < arr[c]) return a;
+        return arr[b] < arr[c] ? c : b;
+    }
+
+    // Plain heap sort (top-down sift down) on arr[left..right]
+    private static void heapSort(long[] arr, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(arr, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(arr, left, left + end);
+            siftDown(arr, left, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] arr, int base, int i, int n) {
+        long value = arr[base + i];
+        int child;
+        while ((child = 2 * i + 1) < n) {
+            if (child + 1 < n && SortMetrics.compared(arr[base + child + 1] > arr[base + child])) {
+                child++;
+            }
+            if (SortMetrics.compared(arr[base + child] <= value)) {
+                break;
+            }
+            arr[base + i] = arr[base + child];
+            SortMetrics.move(1);
+            i = child;
+        }
+        arr[base + i] = value;
+    }
+
+    private static void insertionSort(long[] arr, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            long key = arr[i];
+            int j = i - 1;
+            while (j >= left && SortMetrics.compared(arr[j] > key)) {
+                arr[j + 1] = arr[j];
+                j--;
+                SortMetrics.move(1);
+            }
+            arr[j + 1] = key;
+            SortMetrics.move(1);
+        }
+    }
+
+    private static void swap(long[] arr, int i, int j) {
+        long temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+        SortMetrics.swap();
+    }
+}
@@ -0,0 +1,48 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+// Sorts long[] (or a range of it) in place, picked by name like IntSorter
+@FunctionalInterface
+public interface LongSorter {
+    List<String> ALGORITHMS = List.of("intro", "radix", "parallelRadix", "sample", "jdk", "jdkParallel");
+
+    // Sorts arr[from..to) - to is exclusive
+    void sort(long[] arr, int from, int to);
+
+    default void sort(long[] arr) {
+        sort(arr, 0, arr.length);
+    }
+
+    static LongSorter of(String algorithm) {
+        LongSorter sorter = switch (algorithm) {
+            case "intro" -> checked(IntroSort::sort);
+            case "radix" -> checked((arr, left, right) -> {
+                SortMetrics.allocate(SortMetrics.longArrayBytes(right - left + 1));
+                RadixSort.sort(arr, left, right, new long[right - left + 1]);
+            });
+            case "parallelRadix" -> checked(RadixSort::parallelSort);
+            case "sample" -> checked(SampleSort::sort);
+            case "jdk" -> (arr, from, to) -> Arrays.sort(arr, from, to);
+            case "jdkParallel" -> (arr, from, to) -> Arrays.parallelSort(arr, from, to);
+            default -> throw new IllegalArgumentException("Unknown algorithm: " + algorithm + ", expected one of " + ALGORITHMS);
+        };
+        // Counting wrapper when started with -Dsort.metrics=true
+        return SortMetrics.ENABLED ? SortMetrics.instrumentLong(algorithm, sorter) : sorter;
+    }
+
+    // Sorts arr[left..right] (right inclusive)
+    @FunctionalInterface
+    interface RangeKernel {
+        void sort(long[] arr, int left, int right);
+    }
+
+    private static LongSorter checked(RangeKernel kernel) {
+        return (arr, from, to) -> {
+            Objects.checkFromToIndex(from, to, arr.length);
+            if (to - from > 1) {
+                kernel.sort(arr, from, to - 1);
+            }
+        };
+    }
+}
@@ -1,4 +1,14 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Main {
     public static void main(String[] args) {
@@ -6,7 +16,20 @@ public class Main {
         //insertionSort();
         //selectionSort();
         //mergeSortInit();
+        //parallelMergeSortInit();
         quickSortInit();
+        //introSortInit();
+        //quickSort3WayInit();
+        //radixSortInit();
+        //heapSortInit();
+        //externalSortInit();
+        //sorterInit();
+        //adaptiveMergeSortInit();
+        //sampleSortInit();
+        //selectionInit();
+        //metricsInit();
+        //segmentSortInit();
+        //indexSortInit();
     }
 
 
@@ -14,49 +37,62 @@ public class Main {
     // Bubble - bubble the highest element
     private static void bubbleSort() {
         int[] array = {1,5,9,2,3,8,7};
-        for (int i = 0; i < array.length - 1; i++) {
-            // Loop until length - i, since the highest element is already sorted at the top(bubbled up)
-            for (int j = 0; j < array.length - i - 1; j++) {
+        bubbleSort(array, 0, array.length - 1);
+        System.out.println(Arrays.toString(array));
+    }
+    static void bubbleSort(int[] array, int left, int right) {
+        for (int i = left; i < right; i++) {
+            // Loop until right - (i - left), since the highest element is already sorted at the top(bubbled up)
+            for (int j = left; j < right - (i - left); j++) {
                 // Bubble the element at index j
-                if (array[j] > array[j + 1]) {
+                if (SortMetrics.compared(array[j] > array[j + 1])) {
                     int temp = array[j];
                     array[j] = array[j + 1];
                     array[j + 1] = temp;
+                    SortMetrics.swap();
                 }
             }
         }
-        System.out.println(Arrays.toString(array));
     }
     // Insertion - insert each element at the right index while shifting other element
     private static void insertionSort() {
         int[] array = {1,5,9,2,3,8,7};
-
-        for (int i = 1; i < array.length; i++) {
+        insertionSort(array, 0, array.length - 1);
+        System.out.println(Arrays.toString(array));
+    }
+    // Range version (arr[left..right]), also used by other sorts to finish small partitions
+    static void insertionSort(int[] arr, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
             // Get the element to be inserted
-            int key = array[i];
+            int key = arr[i];
             int j = i - 1;
 
             // Shift other element if it is greater than the key(selected element)
-            while(j >= 0 && array[j] > key) {
-                array[j+1] = array[j];
+            while(j >= left && SortMetrics.compared(arr[j] > key)) {
+                arr[j+1] = arr[j];
                 j--;
+                SortMetrics.move(1);
             }
             // Insert the key to its proper place after shifting other elements
-            array[j+1] = key;
+            arr[j+1] = key;
+            SortMetrics.move(1);
         }
-        System.out.println(Arrays.toString(array));
     }
     // Selection - select the lowest element and swap with element at index i
     private static void selectionSort() {
         int[] array = {1,5,9,2,3,8,7};
-        for (int i = 0; i < array.length - 1; i++) {
+        selectionSort(array, 0, array.length - 1);
+        System.out.println(Arrays.toString(array));
+    }
+    static void selectionSort(int[] array, int left, int right) {
+        for (int i = left; i < right; i++) {
             // Initialize i as the minimum index
             int minIndex = i;
             int j = i + 1;
 
             // Find the lowest element using j pointer
-            while (j < array.length) {
-                if (array[j] < array[minIndex]) {
+            while (j <= right) {
+                if (SortMetrics.compared(array[j] < array[minIndex])) {
                     minIndex = j;
                 }
                 j++;
@@ -66,8 +102,8 @@ public class Main {
             int temp = array[i];
             array[i] = array[minIndex];
             array[minIndex] = temp;
+            SortMetrics.swap();
         }
-        System.out.println(Arrays.toString(array));
     }
 
     // Merge - divide into sub-arrays then merge it while sorting
@@ -85,21 +121,35 @@ public class Main {
         int[] array2 = {1,5,9,2,3,8,7};
         mergeSort2(array2);
         System.out.println(Arrays.toString(array2));
+
+        int[] array3 = {1,5,9,2,3,8,7};
+        mergeSortBuffered(array3);
+        System.out.println(Arrays.toString(array3));
     }
-    private static void mergeSort(int[] arr, int left, int right) {
+    static void mergeSort(int[] arr, int left, int right) {
+        // Small part, let the sorting network finish it instead of dividing down to single elements
+        if (right - left < SmallSort.THRESHOLD) {
+            SmallSort.sort(arr, left, right);
+            return;
+        }
         if (left < right) {
-            // Find the mid pointer (divider)
-            int mid = (left + right) / 2;
-
-            // Divide each array by half until it become a single element (left points where right is/beyond right is >=)
-            mergeSort(arr, left, mid);
-            mergeSort(arr, mid + 1, right);
-
-            // Merge each divided array
-            merge(arr, left, mid, right);
+            SortMetrics.enter();
+            try {
+                // Find the mid pointer (divider)
+                int mid = (left + right) / 2;
+
+                // Divide each array by half until it become a single element (left points where right is/beyond right is >=)
+                mergeSort(arr, left, mid);
+                mergeSort(arr, mid + 1, right);
+
+                // Merge each divided array
+                merge(arr, left, mid, right);
+            } finally {
+                SortMetrics.exit();
+            }
         }
     }
-    private static void merge(int[] arr, int left, int mid, int right) {
+    static void merge(int[] arr, int left, int mid, int right) {
         int n1 = mid - left + 1;
         int n2 = right - mid;
 
@@ -108,6 +158,7 @@ public class Main {
         // Second sub-array is array[mid+1..right]
         int[] L = new int[n1];
         int[] R = new int[n2];
+        SortMetrics.allocate(SortMetrics.intArrayBytes(n1) + SortMetrics.intArrayBytes(n2));
 
 
         // Copy the element to the temporary array (can do Arrays.copyOf())
@@ -117,6 +168,7 @@ public class Main {
         for (int j = 0; j < n2; j++) {
             R[j] = arr[mid + 1 + j];
         }
+        SortMetrics.move(n1 + n2);
 
         // Merge both sub-array(left and right) to the original array
         // Pointer: i - left sub-array, j - right sub-array, k - original array
@@ -124,7 +176,7 @@ public class Main {
 
         // Choose and insert the lowest element between Left and Right sub-array
         while(i < n1 && j < n2) {
-            if (L[i] <= R[j]) {
+            if (SortMetrics.compared(L[i] <= R[j])) {
                 arr[k++] = L[i++];
             } else {
                 arr[k++] = R[j++];
@@ -138,22 +190,46 @@ public class Main {
         while (j < n2) {
             arr[k++] = R[j++];
         }
+        SortMetrics.move(n1 + n2);
     }
 
-    private static void mergeSort2(int[] arr) {
-        if (arr.length > 1) {
-            // Find the mid pointer (divider)
-            int mid = arr.length / 2;
-            // Divide the array into two halves
-            int[] L = Arrays.copyOfRange(arr, 0, mid);
-            int[] R = Arrays.copyOfRange(arr, mid, arr.length);
+    // Parallel Merge - same divide and merge as mergeSort but the halves are sorted on different threads (fork-join)
+    private static void parallelMergeSortInit() {
+        int[] array = {1,5,9,2,3,8,7};
+        ParallelMergeSort.sort(array);
+        System.out.println(Arrays.toString(array));
 
-            // Recursively sort the left and right halves
-            mergeSort2(L);
-            mergeSort2(R);
+        // Cutoff of 1 forks all the way down to single elements (only useful to see the forking on a small array)
+        int[] array2 = {1,5,9,2,3,8,7};
+        ParallelMergeSort.sort(array2, 1);
+        System.out.println(Arrays.toString(array2));
+    }
 
-            // Merge each divided array
-            merge2(arr, L, R);
+    static void mergeSort2(int[] arr) {
+        if (arr.length <= SmallSort.THRESHOLD) {
+            SmallSort.sort(arr, 0, arr.length - 1);
+            return;
+        }
+        if (arr.length > 1) {
+            SortMetrics.enter();
+            try {
+                // Find the mid pointer (divider)
+                int mid = arr.length / 2;
+                // Divide the array into two halves
+                int[] L = Arrays.copyOfRange(arr, 0, mid);
+                int[] R = Arrays.copyOfRange(arr, mid, arr.length);
+                SortMetrics.allocate(SortMetrics.intArrayBytes(L.length) + SortMetrics.intArrayBytes(R.length));
+                SortMetrics.move(arr.length);
+
+                // Recursively sort the left and right halves
+                mergeSort2(L);
+                mergeSort2(R);
+
+                // Merge each divided array
+                merge2(arr, L, R);
+            } finally {
+                SortMetrics.exit();
+            }
         }
     }
 
@@ -162,7 +238,7 @@ public class Main {
         // Pointer: i - left sub-array, j - right sub-array, k - original array
         int i = 0, j = 0, k = 0;
         while(i < L.length && j < R.length) {
-            if (L[i] <= R[j]) {
+            if (SortMetrics.compared(L[i] <= R[j])) {
                 arr[k++] = L[i++];
             } else {
                 arr[k++] = R[j++];
@@ -176,6 +252,82 @@ public class Main {
         while (j < R.length) {
             arr[k++] = R[j++];
         }
+        SortMetrics.move(arr.length);
+    }
+
+    // Buffered Merge - one scratch buffer allocated up front, each level merges from one array into the other (ping-pong)
+    static void mergeSortBuffered(int[] arr) {
+        SortMetrics.allocate(SortMetrics.intArrayBytes(arr.length));
+        mergeSortBuffered(arr, new int[arr.length], 0, arr.length - 1);
+    }
+
+    static void mergeSortBuffered(int[] arr, int[] buffer, int left, int right) {
+        /* Flow:
+            Copy arr[left..right] once into the buffer, so both arrays hold the same elements
+            Sort each half from arr into the buffer, then merge the buffer halves back into arr
+            One level down the roles swap (sort from the buffer into arr, merge into the buffer) and so on
+            No copy of L and R per merge like merge(), the other array already holds both halves
+         */
+        int n = right - left + 1;
+        if (n < 2) {
+            return;
+        }
+        if (buffer.length < n) {
+            throw new IllegalArgumentException("buffer too small: " + buffer.length + " < " + n);
+        }
+        System.arraycopy(arr, left, buffer, 0, n);
+        SortMetrics.move(n);
+        // Indexes below are relative to the range, offsets map them back to each array
+        sortInto(buffer, 0, arr, left, 0, n - 1);
+    }
+
+    // Sorts src[lo..hi] into dst[lo..hi] (both must hold the same elements on entry), src is used as scratch
+    private static void sortInto(int[] src, int srcOff, int[] dst, int dstOff, int lo, int hi) {
+        // Small part, sort it right where it has to end up (dst holds the same elements as src)
+        if (hi - lo < SmallSort.THRESHOLD) {
+            SmallSort.sort(dst, dstOff + lo, dstOff + hi);
+            return;
+        }
+        SortMetrics.enter();
+        try {
+            int mid = (lo + hi) >>> 1;
+            // Swap roles: sort both halves into src, so they can be merged into dst
+            sortInto(dst, dstOff, src, srcOff, lo, mid);
+            sortInto(dst, dstOff, src, srcOff, mid + 1, hi);
+
+            // Already in order, just copy instead of merging
+            if (SortMetrics.compared(src[srcOff + mid] <= src[srcOff + mid + 1])) {
+                System.arraycopy(src, srcOff + lo, dst, dstOff + lo, hi - lo + 1);
+                SortMetrics.move(hi - lo + 1);
+            } else {
+                mergeInto(src, srcOff, dst, dstOff, lo, mid, hi);
+            }
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    // Same as merge() but reads both halves from src and writes into dst, so nothing is allocated
+    private static void mergeInto(int[] src, int srcOff, int[] dst, int dstOff, int lo, int mid, int hi) {
+        // Pointer: i - left half, j - right half, k - destination
+        int i = srcOff + lo, j = srcOff + mid + 1, k = dstOff + lo;
+        int iEnd = srcOff + mid, jEnd = srcOff + hi;
+
+        while (i <= iEnd && j <= jEnd) {
+            if (SortMetrics.compared(src[i] <= src[j])) {
+                dst[k++] = src[i++];
+            } else {
+                dst[k++] = src[j++];
+            }
+        }
+
+        // Insert the left-over (if there is any)
+        if (i <= iEnd) {
+            System.arraycopy(src, i, dst, k, iEnd - i + 1);
+        } else if (j <= jEnd) {
+            System.arraycopy(src, j, dst, k, jEnd - j + 1);
+        }
+        SortMetrics.move(hi - lo + 1);
     }
 
     // Quick - get a partition then put on the left elements that are <= than the pivot, right greater than the pivot then do it recursively at the left and right part
@@ -185,25 +337,35 @@ public class Main {
         System.out.println(Arrays.toString(array));
     }
 
-    private static void quickSort(int[] arr, int left, int right) {
+    static void quickSort(int[] arr, int left, int right) {
         /* Flow:
              Choose a pivot (anywhere) - a good pivot reduces recursion depth making sorting faster
              Partition(divide) the array into two parts
              Left part contains smaller than the pivot, right part contains greater than the pivot
              Then put the pivot between them
              Recursively sort the sub-arrays (each array getting new pivot)
+             Small partitions are handed to SmallSort (sorting network) instead of recursing down to single elements
          */
+        if (right - left < SmallSort.THRESHOLD) {
+            SmallSort.sort(arr, left, right);
+            return;
+        }
         if (left < right) {
-            int pivot = partition(arr, left, right);
-
-            // Recursively sort on the left side of the pivot
-            quickSort(arr, left, pivot - 1);
-            // Recursively sort on the right side of the pivot
-            quickSort(arr, pivot + 1, right);
+            SortMetrics.enter();
+            try {
+                int pivot = partition(arr, left, right);
+
+                // Recursively sort on the left side of the pivot
+                quickSort(arr, left, pivot - 1);
+                // Recursively sort on the right side of the pivot
+                quickSort(arr, pivot + 1, right);
+            } finally {
+                SortMetrics.exit();
+            }
         }
     }
 
-    private static int partition(int[] arr, int left, int right) {
+    static int partition(int[] arr, int left, int right) {
         // Choose the rightmost element as pivot
         int pivot = arr[right];
 
@@ -214,11 +376,12 @@ public class Main {
         for (int j = left; j < right; j++) {
             // If element smaller than pivot is found
             // Swap it with the greater element pointed by i (increment i first since it is initially pointing at left - 1)
-            if (arr[j] <= pivot) {
+            if (SortMetrics.compared(arr[j] <= pivot)) {
                 i++;
                 int temp = arr[i];
                 arr[i] = arr[j];
                 arr[j] = temp;
+                SortMetrics.swap();
             }
         }
 
@@ -227,11 +390,303 @@ public class Main {
         int temp = arr[i];
         arr[i] = arr[right];
         arr[right] = temp;
+        SortMetrics.swap();
 
         // Return the position from where partition is done
         return i;
     }
 
-    // heapsort
+    // Quick 3-way (Dutch national flag) - partition into < pivot, == pivot, > pivot, so equal keys are placed in one pass and never recursed into again
+    private static void quickSort3WayInit() {
+        int[] array = {3,1,3,2,1,3,2,3,1,3};
+        quickSort3Way(array, 0, array.length - 1);
+        System.out.println(Arrays.toString(array));
+    }
+
+    static void quickSort3Way(int[] arr, int left, int right) {
+        /* Flow:
+             Pivot is the median of three random elements - a fixed middle pivot goes quadratic on organ-pipe input,
+             random positions leave no input pattern (sorted, reversed, organ-pipe) that does that, the median balances the parts
+             lt - end of the < part, i - current element, gt - start of the > part
+             Smaller than the pivot: swap to the < part, bigger: swap to the > part, equal: leave it in the middle
+             Everything in arr[lt..gt] is equal to the pivot and already in its final place
+             Recursively sort the smaller outer part, loop on the bigger one
+         */
+        SortMetrics.enter();
+        try {
+            while (left < right) {
+                int pivot = randomPivot(arr, left, right);
+                int lt = left, i = left, gt = right;
+
+                while (i <= gt) {
+                    if (SortMetrics.compared(arr[i] < pivot)) {
+                        int temp = arr[lt];
+                        arr[lt++] = arr[i];
+                        arr[i++] = temp;
+                        SortMetrics.swap();
+                    } else if (SortMetrics.compared(arr[i] > pivot)) {
+                        // Do not move i, the element swapped in from gt has not been checked yet
+                        int temp = arr[gt];
+                        arr[gt--] = arr[i];
+                        arr[i] = temp;
+                        SortMetrics.swap();
+                    } else {
+                        i++;
+                    }
+                }
+
+                // arr[left..lt-1] < pivot, arr[lt..gt] == pivot, arr[gt+1..right] > pivot
+                if (lt - left < right - gt) {
+                    quickSort3Way(arr, left, lt - 1);
+                    left = gt + 1;
+                } else {
+                    quickSort3Way(arr, gt + 1, right);
+                    right = lt - 1;
+                }
+            }
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    // Median of three random elements of arr[left..right]
+    private static int randomPivot(int[] arr, int left, int right) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int a = arr[random.nextInt(left, right + 1)];
+        if (right - left < 2) {
+            return a;
+        }
+        int b = arr[random.nextInt(left, right + 1)];
+        int c = arr[random.nextInt(left, right + 1)];
+        SortMetrics.compare(3);
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    // Intro - quick sort that watches its own recursion depth, falls back to heap sort when it goes too deep and insertion sort on small parts
+    private static void introSortInit() {
+        int[] array = {1,5,9,2,3,8,7};
+        IntroSort.sort(array);
+        System.out.println(Arrays.toString(array));
+
+        // Already sorted and all-equal inputs are the worst case of quickSort (pivot = arr[right])
+        int[] sorted = new int[100_000];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i;
+        }
+        IntroSort.sort(sorted);
+        System.out.println(sorted[0] + " .. " + sorted[sorted.length - 1]);
+    }
+
+    // Radix - no comparisons, elements are placed byte by byte (counting sort per byte, lowest byte first)
+    private static void radixSortInit() {
+        int[] array = {1,5,-9,2,3,-8,7};
+        RadixSort.sort(array);
+        System.out.println(Arrays.toString(array));
+
+        long[] timestamps = {1718000000000L, -5L, 1700000000000L, 0L, Long.MAX_VALUE, Long.MIN_VALUE};
+        RadixSort.sort(timestamps);
+        System.out.println(Arrays.toString(timestamps));
+    }
+
+    // Heap - build a max heap in place, then keep swapping the max (root) to the end and fixing the heap
+    private static void heapSortInit() {
+        int[] array = {1,5,9,2,3,8,7};
+        heapSort(array, 0, array.length - 1);
+        System.out.println(Arrays.toString(array));
+    }
+
+    static void heapSort(int[] arr, int left, int right) {
+        /* Flow:
+            Heap lives in arr[left..right], root at left, children of i are 2i+1 and 2i+2 (relative to left)
+            Build the heap bottom-up (Floyd): sift down every parent, starting from the last one - O(n)
+            Swap the root (max) with the last element of the heap, shrink the heap by one, sift the new root down
+            No extra array, only O(1) memory and O(n log n) even in the worst case
+         */
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(arr, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            int temp = arr[left];
+            arr[left] = arr[left + end];
+            arr[left + end] = temp;
+            SortMetrics.swap();
+            siftDown(arr, left, 0, end);
+        }
+    }
+
+    private static void siftDown(int[] arr, int base, int i, int n) {
+        /* Bottom-up sift down:
+            The element that was swapped to the root is usually small, so it ends up near the bottom anyway
+            Instead of comparing it at every level (2 comparisons per level), walk down the path of bigger children to a leaf (1 comparison per level)
+            Then climb back up from the leaf to where the element belongs (usually just a few steps)
+            Shift everything on the path above that point up one level and put the element there
+         */
+        int value = arr[base + i];
+        int j = i;
+        int child;
+        while ((child = 2 * j + 1) < n) {
+            if (child + 1 < n && SortMetrics.compared(arr[base + child + 1] > arr[base + child])) {
+                child++;
+            }
+            j = child;
+        }
+
+        // Climb up until a value >= the element is found (stops at i at the latest, arr[i] is the element itself)
+        while (SortMetrics.compared(arr[base + j] < value)) {
+            j = (j - 1) / 2;
+        }
+
+        // Put the element at j and shift the path between i and j up by one
+        int displaced = arr[base + j];
+        arr[base + j] = value;
+        SortMetrics.move(1);
+        while (j > i) {
+            j = (j - 1) / 2;
+            int temp = arr[base + j];
+            arr[base + j] = displaced;
+            displaced = temp;
+            SortMetrics.move(1);
+        }
+    }
+
+    // External Merge - for data bigger than the heap: sort chunks in memory, write them as sorted runs to disk, then k-way merge the runs
+    private static void externalSortInit() {
+        try {
+            Path input = Files.createTempFile("ints-", ".bin");
+            Path output = Files.createTempFile("sorted-", ".bin");
+            int[] array = {1,5,9,2,3,8,7};
+            ByteBuffer bytes = ByteBuffer.allocate(array.length * Integer.BYTES);
+            bytes.asIntBuffer().put(array);
+            Files.write(input, bytes.array());
+
+            // Run size of 3 records -> 3 runs: [1,5,9] [2,3,8] [7]
+            ExternalMergeSort.sortInts(input, output, 3, input.getParent());
+
+            IntBuffer sorted = ByteBuffer.wrap(Files.readAllBytes(output)).asIntBuffer();
+            int[] result = new int[sorted.remaining()];
+            sorted.get(result);
+            System.out.println(Arrays.toString(result));
+
+            Files.delete(input);
+            Files.delete(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Sorter API - the same sorts behind one interface per element type, picked by name, on a whole array or a range (to is exclusive)
+    private static void sorterInit() {
+        int[] array = {1,5,9,2,3,8,7};
+        IntSorter.of("intro").sort(array, 1, 5);
+        System.out.println(Arrays.toString(array)); // [1, 2, 3, 5, 9, 8, 7]
+
+        long[] timestamps = {1718000000000L, 1700000000000L, 1710000000000L};
+        LongSorter.of("radix").sort(timestamps);
+        System.out.println(Arrays.toString(timestamps));
+
+        double[] prices = {9.5, -1.0, Double.NaN, 0.0, -0.0};
+        DoubleSorter.of("radix").sort(prices);
+        System.out.println(Arrays.toString(prices)); // [-1.0, -0.0, 0.0, 9.5, NaN]
+
+        String[] names = {"Charlie", "alice", "Bob"};
+        ObjectSorter.of("merge", String.CASE_INSENSITIVE_ORDER).sort(names);
+        System.out.println(Arrays.toString(names)); // [alice, Bob, Charlie]
+    }
+
+    // Adaptive Merge (TimSort style) - finds the runs that are already sorted and only merges those, nearly sorted input is close to O(n)
+    private static void adaptiveMergeSortInit() {
+        // Two ascending runs and one descending run (reversed in place before merging)
+        int[] array = {1,5,9,2,3,8,7,6,4};
+        AdaptiveMergeSort.sort(array);
+        System.out.println(Arrays.toString(array));
+
+        // Mostly time-ordered events with a few late arrivals
+        int[] events = new int[100_000];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = i % 1000 == 0 ? i - 500 : i;
+        }
+        AdaptiveMergeSort.sort(events);
+        System.out.println(events[0] + " .. " + events[events.length - 1]);
+    }
+
+    // Sample - parallel: random splitters cut the values into buckets, every bucket is sorted on its own thread, no merge needed
+    private static void sampleSortInit() {
+        // Small arrays are just intro sorted, the parallel path starts at 128K elements
+        int[] array = new int[1_000_000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ThreadLocalRandom.current().nextInt();
+        }
+        SampleSort.sort(array);
+        boolean sorted = true;
+        for (int i = 1; i < array.length; i++) {
+            sorted &= array[i - 1] <= array[i];
+        }
+        System.out.println(sorted);
+    }
+
+    // Quickselect - partition like quickSort but only continue on the side that holds index k (top-k, medians, percentiles)
+    private static void selectionInit() {
+        int[] array = {1,5,9,2,3,8,7};
+        Selection.nthElement(array, 3);
+        System.out.println(array[3]); // 5 (4th smallest)
+
+        int[] array2 = {1,5,9,2,3,8,7};
+        Selection.partialSort(array2, 3);
+        System.out.println(Arrays.toString(Arrays.copyOf(array2, 3))); // [1, 2, 3]
+
+        int[] latencies = {120, 80, 95, 300, 110, 90, 85, 2000, 100, 105};
+        System.out.println(Selection.median(latencies) + " " + Selection.percentile(latencies, 90)); // 100 300
+
+        // Nearest rank of 1..100 is p itself
+        int[] ranks = new int[100];
+        Arrays.setAll(ranks, i -> 100 - i);
+        System.out.println(Selection.percentile(ranks, 7) + " " + Selection.percentile(ranks, 14) + " " + Selection.percentile(ranks, 28)); // 7 14 28
+    }
+
+    // Metrics - run with -Dsort.metrics=true, otherwise nothing is counted and the listener is never called
+    private static void metricsInit() {
+        SortMetrics.addListener(System.out::println);
+        for (String algorithm : new String[]{"insertion", "merge", "quick", "intro", "heap", "radix"}) {
+            int[] array = ThreadLocalRandom.current().ints(10_000).toArray();
+            IntSorter.of(algorithm).sort(array);
+        }
+        // SortStats[algorithm=intro, length=10000, comparisons=..., swaps=..., moves=..., maxRecursionDepth=..., bytesAllocated=0, nanos=...]
+    }
+
+    // Off-heap - the values live in native memory (not scanned by the GC), sorted in place without copying into an int[]
+    private static void segmentSortInit() {
+        int[] values = {1,5,9,2,3,8,7};
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment ids = arena.allocate(values.length * ValueLayout.JAVA_INT.byteSize(), ValueLayout.JAVA_INT.byteAlignment());
+            MemorySegment.copy(values, 0, ids, ValueLayout.JAVA_INT, 0, values.length);
+            SegmentSort.quickSortInts(ids);
+            System.out.println(Arrays.toString(ids.toArray(ValueLayout.JAVA_INT)));
+
+            MemorySegment timestamps = arena.allocate(4 * ValueLayout.JAVA_LONG.byteSize(), ValueLayout.JAVA_LONG.byteAlignment());
+            long[] times = {1_700_000_300_000L, 1_700_000_100_000L, 1_700_000_400_000L, 1_700_000_200_000L};
+            MemorySegment.copy(times, 0, timestamps, ValueLayout.JAVA_LONG, 0, times.length);
+            // Stable, the scratch is allocated off-heap too
+            SegmentSort.mergeSortLongs(timestamps);
+            System.out.println(Arrays.toString(timestamps.toArray(ValueLayout.JAVA_LONG)));
+        }
+    }
+
+    // Index sort - records kept as parallel arrays (column per field), sorted by one key
+    private static void indexSortInit() {
+        int[] ages = {31, 25, 40, 25, 19};
+        String[] names = {"Ann", "Bob", "Cid", "Dan", "Eve"};
+        long[] ids = {501, 502, 503, 504, 505};
+
+        // Sort the indexes once, then reorder every column with them
+        int[] perm = IndexSort.argsort(ages);
+        System.out.println(Arrays.toString(perm)); // [4, 1, 3, 0, 2] (Bob before Dan, stable)
+        System.out.println(Arrays.toString(IndexSort.permute(names, perm))); // [Eve, Bob, Dan, Ann, Cid]
+
+        // Only one payload column: sort it along with the keys in place
+        IndexSort.sort(ages, ids);
+        System.out.println(Arrays.toString(ages) + " " + Arrays.toString(ids)); // [19, 25, 25, 31, 40] [505, 502, 504, 501, 503] (502 and 504 may swap, not stable)
+    }
+
     // 3-way-merge-sort
 }
@@ -0,0 +1,47 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+// Sorts T[] (or a range of it) in place by a Comparator, picked by name like IntSorter
+@FunctionalInterface
+public interface ObjectSorter<T> {
+    // merge, insertion and the jdk ones are stable (equal elements keep their order), heap is not
+    List<String> ALGORITHMS = List.of("insertion", "merge", "heap", "jdk", "jdkParallel");
+
+    // Sorts arr[from..to) - to is exclusive
+    void sort(T[] arr, int from, int to);
+
+    default void sort(T[] arr) {
+        sort(arr, 0, arr.length);
+    }
+
+    static <T> ObjectSorter<T> of(String algorithm, Comparator<? super T> comparator) {
+        Objects.requireNonNull(comparator, "comparator");
+        ObjectSorter<T> sorter = switch (algorithm) {
+            case "insertion" -> checked((arr, left, right) -> ObjectSorts.insertionSort(arr, left, right, comparator));
+            case "merge" -> checked((arr, left, right) -> ObjectSorts.mergeSort(arr, left, right, comparator));
+            case "heap" -> checked((arr, left, right) -> ObjectSorts.heapSort(arr, left, right, comparator));
+            case "jdk" -> (arr, from, to) -> Arrays.sort(arr, from, to, comparator);
+            case "jdkParallel" -> (arr, from, to) -> Arrays.parallelSort(arr, from, to, comparator);
+            default -> throw new IllegalArgumentException("Unknown algorithm: " + algorithm + ", expected one of " + ALGORITHMS);
+        };
+        // Counting wrapper when started with -Dsort.metrics=true
+        return SortMetrics.ENABLED ? SortMetrics.instrumentObject(algorithm, sorter) : sorter;
+    }
+
+    // Sorts arr[left..right] (right inclusive)
+    @FunctionalInterface
+    interface RangeKernel<T> {
+        void sort(T[] arr, int left, int right);
+    }
+
+    private static <T> ObjectSorter<T> checked(RangeKernel<T> kernel) {
+        return (arr, from, to) -> {
+            Objects.checkFromToIndex(from, to, arr.length);
+            if (to - from > 1) {
+                kernel.sort(arr, from, to - 1);
+            }
+        };
+    }
+}
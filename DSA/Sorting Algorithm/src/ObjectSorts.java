@@ -0,0 +1,93 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Comparator versions of the int[] kernels in Main (same flow, the comparisons go through the comparator)
+class ObjectSorts {
+    static <T> void insertionSort(T[] arr, int left, int right, Comparator<? super T> c) {
+        for (int i = left + 1; i <= right; i++) {
+            T key = arr[i];
+            int j = i - 1;
+            // Strictly greater, so equal elements keep their order (stable)
+            while (j >= left && SortMetrics.compared(c.compare(arr[j], key) > 0)) {
+                arr[j + 1] = arr[j];
+                j--;
+                SortMetrics.move(1);
+            }
+            arr[j + 1] = key;
+            SortMetrics.move(1);
+        }
+    }
+
+    // Buffered merge sort (like Main.mergeSortBuffered): one scratch copy, source and destination swap every level
+    static <T> void mergeSort(T[] arr, int left, int right, Comparator<? super T> c) {
+        T[] buffer = Arrays.copyOfRange(arr, left, right + 1);
+        // References only, the array header plus 4 bytes per slot (compressed oops)
+        SortMetrics.allocate(SortMetrics.intArrayBytes(buffer.length));
+        SortMetrics.move(buffer.length);
+        sortInto(buffer, 0, arr, left, 0, right - left, c);
+    }
+
+    private static <T> void sortInto(T[] src, int srcOff, T[] dst, int dstOff, int lo, int hi, Comparator<? super T> c) {
+        if (hi - lo < 16) {
+            // Small range, insertion sort it where it has to end up
+            insertionSort(dst, dstOff + lo, dstOff + hi, c);
+            return;
+        }
+        SortMetrics.enter();
+        try {
+            int mid = (lo + hi) >>> 1;
+            sortInto(dst, dstOff, src, srcOff, lo, mid, c);
+            sortInto(dst, dstOff, src, srcOff, mid + 1, hi, c);
+
+            int i = srcOff + lo, j = srcOff + mid + 1, k = dstOff + lo;
+            int iEnd = srcOff + mid, jEnd = srcOff + hi;
+            while (i <= iEnd && j <= jEnd) {
+                // <= keeps the left element first on ties (stable)
+                if (SortMetrics.compared(c.compare(src[i], src[j]) <= 0)) {
+                    dst[k++] = src[i++];
+                } else {
+                    dst[k++] = src[j++];
+                }
+            }
+            if (i <= iEnd) {
+                System.arraycopy(src, i, dst, k, iEnd - i + 1);
+            } else if (j <= jEnd) {
+                System.arraycopy(src, j, dst, k, jEnd - j + 1);
+            }
+            SortMetrics.move(hi - lo + 1);
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    static <T> void heapSort(T[] arr, int left, int right, Comparator<? super T> c) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(arr, left, i, n, c);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            T temp = arr[left];
+            arr[left] = arr[left + end];
+            arr[left + end] = temp;
+            SortMetrics.swap();
+            siftDown(arr, left, 0, end, c);
+        }
+    }
+
+    private static <T> void siftDown(T[] arr, int base, int i, int n, Comparator<? super T> c) {
+        T value = arr[base + i];
+        int child;
+        while ((child = 2 * i + 1) < n) {
+            if (child + 1 < n && SortMetrics.compared(c.compare(arr[base + child + 1], arr[base + child]) > 0)) {
+                child++;
+            }
+            if (SortMetrics.compared(c.compare(arr[base + child], value) <= 0)) {
+                break;
+            }
+            arr[base + i] = arr[base + child];
+            SortMetrics.move(1);
+            i = child;
+        }
+        arr[base + i] = value;
+    }
+}
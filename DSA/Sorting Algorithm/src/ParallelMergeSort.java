@@ -0,0 +1,70 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Parallel Merge Sort - mergeSort split into fork-join tasks, each half is sorted on its own worker thread
+public class ParallelMergeSort {
+    // Below this many elements forking costs more than it saves, so the task falls back to the sequential mergeSort
+    public static final int DEFAULT_CUTOFF = 1 << 13;
+
+    public static void sort(int[] arr) {
+        sort(arr, DEFAULT_CUTOFF);
+    }
+
+    public static void sort(int[] arr, int cutoff) {
+        sort(arr, 0, arr.length - 1, cutoff, ForkJoinPool.commonPool());
+    }
+
+    public static void sort(int[] arr, int left, int right, int cutoff, ForkJoinPool pool) {
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("cutoff must be >= 1: " + cutoff);
+        }
+        /* Flow:
+            Split the range in half like mergeSort
+            Fork the left half (another worker can steal it), compute the right half on the current thread
+            Join, then merge both halves with the existing merge
+            Ranges smaller than the cutoff are sorted sequentially
+         */
+        if (left < right) {
+            pool.invoke(new MergeSortTask(arr, left, right, cutoff));
+        }
+    }
+
+    private static class MergeSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] arr;
+        private final int left;
+        private final int right;
+        private final int cutoff;
+
+        MergeSortTask(int[] arr, int left, int right, int cutoff) {
+            this.arr = arr;
+            this.left = left;
+            this.right = right;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected void compute() {
+            // Small enough, no need to fork anymore
+            if (right - left + 1 <= cutoff) {
+                Main.mergeSort(arr, left, right);
+                return;
+            }
+            // Use unsigned shift to find the mid pointer so left + right cannot overflow on huge arrays
+            int mid = (left + right) >>> 1;
+
+            // invokeAll forks one half and runs the other on this thread, then waits for both
+            SortMetrics.enter();
+            try {
+                invokeAll(new MergeSortTask(arr, left, mid, cutoff),
+                          new MergeSortTask(arr, mid + 1, right, cutoff));
+            } finally {
+                SortMetrics.exit();
+            }
+
+            // Both halves are sorted, merge them back (same as the sequential version)
+            Main.merge(arr, left, mid, right);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Radix (LSD) - not comparison based, sorts by one byte at a time starting from the lowest byte, each pass is a stable counting sort
+public class RadixSort {
+    private static final int RADIX = 256;
+    private static final int MASK = RADIX - 1;
+    // Below this size the counting passes cost more than they save
+    private static final int INSERTION_THRESHOLD = 64;
+    // Below this size a single thread is faster than splitting the passes into chunks
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    // Histogram sizes for the sort overloads that take one: a row of 256 buckets per byte
+    public static final int INT_HISTOGRAM_SIZE = 4 * RADIX;
+    public static final int LONG_HISTOGRAM_SIZE = 8 * RADIX;
+
+    public static void sort(int[] arr) {
+        SortMetrics.allocate(SortMetrics.intArrayBytes(arr.length));
+        sort(arr, 0, arr.length - 1, new int[arr.length]);
+    }
+
+    public static void sort(long[] arr) {
+        SortMetrics.allocate(SortMetrics.longArrayBytes(arr.length));
+        sort(arr, 0, arr.length - 1, new long[arr.length]);
+    }
+
+    // scratch must hold at least right - left + 1 elements, pass the same one to reuse it between calls
+    public static void sort(int[] arr, int left, int right, int[] scratch) {
+        SortMetrics.allocate(SortMetrics.intArrayBytes(INT_HISTOGRAM_SIZE));
+        sort(arr, left, right, scratch, new int[INT_HISTOGRAM_SIZE]);
+    }
+
+    // Same, count must hold at least INT_HISTOGRAM_SIZE ints - sorting many chunks with one scratch and one count allocates nothing
+    public static void sort(int[] arr, int left, int right, int[] scratch, int[] count) {
+        /* Flow:
+            Count every byte of every element in one read (4 histograms of 256 buckets)
+            For each byte (lowest first): turn its histogram into start offsets, scatter the elements into the other array
+            The element order from previous passes is kept (stable), so after the highest byte the array is sorted
+            The sign bit is flipped in the highest byte, so negative numbers come before positive ones
+            A pass where every element has the same byte is skipped
+         */
+        int n = right - left + 1;
+        if (n < INSERTION_THRESHOLD) {
+            Main.insertionSort(arr, left, right);
+            return;
+        }
+        checkScratch(scratch.length, n);
+        checkHistogram(count.length, INT_HISTOGRAM_SIZE);
+
+        // One histogram per byte, reused as the offset table of that byte (count still holds the offsets of the last call)
+        Arrays.fill(count, 0, INT_HISTOGRAM_SIZE, 0);
+        for (int i = left; i <= right; i++) {
+            int v = arr[i];
+            count[(v & MASK)]++;
+            count[RADIX + ((v >>> 8) & MASK)]++;
+            count[2 * RADIX + ((v >>> 16) & MASK)]++;
+            count[3 * RADIX + (((v >>> 24) ^ 0x80) & MASK)]++;
+        }
+
+        // Pointer: src/srcOff - where the elements are now, dst/dstOff - where this pass writes them
+        int[] src = arr, dst = scratch;
+        int srcOff = left, dstOff = 0;
+        for (int pass = 0; pass < 4; pass++) {
+            int base = pass * RADIX;
+            if (!toOffsets(count, base, n)) {
+                continue;
+            }
+            int shift = pass * 8;
+            int flip = pass == 3 ? 0x80 : 0;
+            for (int i = 0; i < n; i++) {
+                int v = src[srcOff + i];
+                dst[dstOff + count[base + (((v >>> shift) ^ flip) & MASK)]++] = v;
+            }
+            // No comparisons in radix sort, every pass moves every element once
+            SortMetrics.move(n);
+            int[] temp = src; src = dst; dst = temp;
+            int tempOff = srcOff; srcOff = dstOff; dstOff = tempOff;
+        }
+        // Odd number of passes done, the sorted elements are still in the scratch array
+        if (src != arr) {
+            System.arraycopy(src, srcOff, arr, left, n);
+            SortMetrics.move(n);
+        }
+    }
+
+    public static void sort(long[] arr, int left, int right, long[] scratch) {
+        SortMetrics.allocate(SortMetrics.intArrayBytes(LONG_HISTOGRAM_SIZE));
+        sort(arr, left, right, scratch, new int[LONG_HISTOGRAM_SIZE]);
+    }
+
+    public static void sort(long[] arr, int left, int right, long[] scratch, int[] count) {
+        // Same as the int version with 8 bytes
+        int n = right - left + 1;
+        if (n < INSERTION_THRESHOLD) {
+            insertionSort(arr, left, right);
+            return;
+        }
+        checkScratch(scratch.length, n);
+        checkHistogram(count.length, LONG_HISTOGRAM_SIZE);
+
+        Arrays.fill(count, 0, LONG_HISTOGRAM_SIZE, 0);
+        for (int i = left; i <= right; i++) {
+            long v = arr[i];
+            for (int pass = 0; pass < 7; pass++) {
+                count[pass * RADIX + (int) ((v >>> (pass * 8)) & MASK)]++;
+            }
+            count[7 * RADIX + (int) (((v >>> 56) ^ 0x80) & MASK)]++;
+        }
+
+        long[] src = arr, dst = scratch;
+        int srcOff = left, dstOff = 0;
+        for (int pass = 0; pass < 8; pass++) {
+            int base = pass * RADIX;
+            if (!toOffsets(count, base, n)) {
+                continue;
+            }
+            int shift = pass * 8;
+            long flip = pass == 7 ? 0x80 : 0;
+            for (int i = 0; i < n; i++) {
+                long v = src[srcOff + i];
+                dst[dstOff + count[base + (int) (((v >>> shift) ^ flip) & MASK)]++] = v;
+            }
+            SortMetrics.move(n);
+            long[] temp = src; src = dst; dst = temp;
+            int tempOff = srcOff; srcOff = dstOff; dstOff = tempOff;
+        }
+        if (src != arr) {
+            System.arraycopy(src, srcOff, arr, left, n);
+            SortMetrics.move(n);
+        }
+    }
+
+    // Parallel Radix - every pass splits the array in chunks, each chunk counts and scatters its own elements on its own thread
+    public static void parallelSort(int[] arr) {
+        parallelSort(arr, 0, arr.length - 1);
+    }
+
+    public static void parallelSort(int[] arr, int left, int right) {
+        int n = right - left + 1;
+        if (n < PARALLEL_THRESHOLD) {
+            SortMetrics.allocate(SortMetrics.intArrayBytes(Math.max(n, 0)));
+            sort(arr, left, right, new int[Math.max(n, 0)]);
+            return;
+        }
+        /* Flow (per byte):
+            Each chunk builds its own histogram (in parallel)
+            Offsets are computed bucket by bucket, chunk by chunk (chunk 0 first) - this keeps the sort stable
+            Each chunk scatters its elements starting at its own offsets (in parallel, no two chunks write the same slot)
+         */
+        int chunks = chunkCount(n);
+        int chunkSize = (n + chunks - 1) / chunks;
+        // Histogram buffer shared by all passes, one row of 256 per chunk
+        int[][] count = new int[chunks][RADIX];
+        int[] src = arr, dst = new int[n];
+        SortMetrics.allocate(SortMetrics.intArrayBytes(n) + chunks * SortMetrics.intArrayBytes(RADIX));
+        int srcOff = left, dstOff = 0;
+
+        for (int pass = 0; pass < 4; pass++) {
+            int shift = pass * 8;
+            int flip = pass == 3 ? 0x80 : 0;
+            int[] from = src;
+            int fromOff = srcOff;
+
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] histogram = count[c];
+                Arrays.fill(histogram, 0);
+                int end = Math.min(n, (c + 1) * chunkSize);
+                for (int i = c * chunkSize; i < end; i++) {
+                    histogram[((from[fromOff + i] >>> shift) ^ flip) & MASK]++;
+                }
+            });
+            if (!toChunkOffsets(count, n)) {
+                continue;
+            }
+            int[] to = dst;
+            int toOff = dstOff;
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] offsets = count[c];
+                int end = Math.min(n, (c + 1) * chunkSize);
+                for (int i = c * chunkSize; i < end; i++) {
+                    int v = from[fromOff + i];
+                    to[toOff + offsets[((v >>> shift) ^ flip) & MASK]++] = v;
+                }
+            });
+            // No comparisons in radix sort, every pass moves every element once
+            SortMetrics.move(n);
+            int[] temp = src; src = dst; dst = temp;
+            int tempOff = srcOff; srcOff = dstOff; dstOff = tempOff;
+        }
+        if (src != arr) {
+            System.arraycopy(src, srcOff, arr, left, n);
+            SortMetrics.move(n);
+        }
+    }
+
+    public static void parallelSort(long[] arr) {
+        parallelSort(arr, 0, arr.length - 1);
+    }
+
+    public static void parallelSort(long[] arr, int left, int right) {
+        int n = right - left + 1;
+        if (n < PARALLEL_THRESHOLD) {
+            SortMetrics.allocate(SortMetrics.longArrayBytes(Math.max(n, 0)));
+            sort(arr, left, right, new long[Math.max(n, 0)]);
+            return;
+        }
+        int chunks = chunkCount(n);
+        int chunkSize = (n + chunks - 1) / chunks;
+        int[][] count = new int[chunks][RADIX];
+        long[] src = arr, dst = new long[n];
+        SortMetrics.allocate(SortMetrics.longArrayBytes(n) + chunks * SortMetrics.intArrayBytes(RADIX));
+        int srcOff = left, dstOff = 0;
+
+        for (int pass = 0; pass < 8; pass++) {
+            int shift = pass * 8;
+            long flip = pass == 7 ? 0x80 : 0;
+            long[] from = src;
+            int fromOff = srcOff;
+
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] histogram = count[c];
+                Arrays.fill(histogram, 0);
+                int end = Math.min(n, (c + 1) * chunkSize);
+                for (int i = c * chunkSize; i < end; i++) {
+                    histogram[(int) (((from[fromOff + i] >>> shift) ^ flip) & MASK)]++;
+                }
+            });
+            if (!toChunkOffsets(count, n)) {
+                continue;
+            }
+            long[] to = dst;
+            int toOff = dstOff;
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int[] offsets = count[c];
+                int end = Math.min(n, (c + 1) * chunkSize);
+                for (int i = c * chunkSize; i < end; i++) {
+                    long v = from[fromOff + i];
+                    to[toOff + offsets[(int) (((v >>> shift) ^ flip) & MASK)]++] = v;
+                }
+            });
+            SortMetrics.move(n);
+            long[] temp = src; src = dst; dst = temp;
+            int tempOff = srcOff; srcOff = dstOff; dstOff = tempOff;
+        }
+        if (src != arr) {
+            System.arraycopy(src, srcOff, arr, left, n);
+            SortMetrics.move(n);
+        }
+    }
+
+    // Turns count[base..base+255] into start offsets, returns false if all n elements fall in one bucket (pass can be skipped)
+    private static boolean toOffsets(int[] count, int base, int n) {
+        int sum = 0;
+        for (int b = base; b < base + RADIX; b++) {
+            int c = count[b];
+            if (c == n) {
+                return false;
+            }
+            count[b] = sum;
+            sum += c;
+        }
+        return true;
+    }
+
+    // Same for per-chunk histograms: offsets go bucket by bucket, and inside a bucket chunk by chunk
+    private static boolean toChunkOffsets(int[][] count, int n) {
+        int sum = 0;
+        for (int b = 0; b < RADIX; b++) {
+            int bucketStart = sum;
+            for (int[] histogram : count) {
+                int c = histogram[b];
+                histogram[b] = sum;
+                sum += c;
+            }
+            if (sum - bucketStart == n) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int chunkCount(int n) {
+        // A few chunks per worker so a slow thread does not hold up the pass
+        int chunks = ForkJoinPool.getCommonPoolParallelism() * 4;
+        return Math.max(1, Math.min(chunks, n / (PARALLEL_THRESHOLD / 4)));
+    }
+
+    private static void checkScratch(int length, int n) {
+        if (length < n) {
+            throw new IllegalArgumentException("scratch too small: " + length + " < " + n);
+        }
+    }
+
+    private static void checkHistogram(int length, int size) {
+        if (length < size) {
+            throw new IllegalArgumentException("histogram too small: " + length + " < " + size);
+        }
+    }
+
+    private static void insertionSort(long[] arr, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            long key = arr[i];
+            int j = i - 1;
+            while (j >= left && SortMetrics.compared(arr[j] > key)) {
+                arr[j + 1] = arr[j];
+                j--;
+                SortMetrics.move(1);
+            }
+            arr[j + 1] = key;
+            SortMetrics.move(1);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Sample Sort - parallel sort without a final merge: split the values into buckets by splitters, then sort every bucket on its own
+public class SampleSort {
+    /* Flow:
+        Take a random sample (oversampled, so the splitters are close to the real quantiles) and sort it
+        Every oversample-th element of the sample becomes a splitter -> k buckets of roughly n / k elements
+        Classify (parallel, per chunk): find the bucket of every element with a branchless search tree, count per chunk and bucket
+        Offsets bucket by bucket, chunk by chunk, then scatter (parallel) every element into its bucket in a second array
+        Sort every bucket with IntroSort (parallel, buckets are independent) and copy it back - no merge at the end
+
+       Equality buckets (like IPS4o), only when two neighbouring splitters are equal (many duplicates / one very common key):
+        without them every copy of that key lands in one bucket, one huge bucket sorted by one thread while the rest wait
+        with them bucket b splits into 2b (below its upper splitter) and 2b + 1 (equal to it), the equal bucket needs no sort
+     */
+    // Below this size the parallel phases cost more than they save
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 17;
+    // Sample elements per bucket, more -> better balanced buckets
+    private static final int OVERSAMPLING = 32;
+    // Bucket ids are kept in a byte per element
+    private static final int MAX_BUCKETS = 256;
+
+    public static void sort(int[] arr) {
+        sort(arr, 0, arr.length - 1);
+    }
+
+    public static void sort(int[] arr, int left, int right) {
+        int n = right - left + 1;
+        if (n < SEQUENTIAL_THRESHOLD) {
+            IntroSort.sort(arr, left, right);
+            return;
+        }
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int buckets = bucketCount(parallelism);
+
+        // Splitters as an implicit binary search tree: tree[1] is the root, children of j are 2j and 2j + 1
+        int[] sample = new int[buckets * OVERSAMPLING];
+        SplittableRandom random = new SplittableRandom(n);
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = arr[left + random.nextInt(n)];
+        }
+        IntroSort.sort(sample);
+        int step = OVERSAMPLING;
+        boolean equalBuckets = hasEqualSplitters(sample, buckets, step);
+        if (equalBuckets && 2 * buckets > MAX_BUCKETS) {
+            // 2 ids per bucket must still fit in a byte
+            buckets /= 2;
+            step *= 2;
+        }
+        int log = Integer.numberOfTrailingZeros(buckets);
+        int[] tree = new int[buckets];
+        buildTree(tree, 1, sample, 0, buckets, step);
+        // Upper splitter of every bucket, the last bucket repeats the one below (nothing in it is equal to that)
+        int[] upper = new int[buckets];
+        for (int b = 0; b < buckets; b++) {
+            upper[b] = sample[(Math.min(b, buckets - 2) + 1) * step - 1];
+        }
+        int shift = equalBuckets ? 1 : 0;
+        int classes = buckets << shift;
+
+        int chunks = Math.min(parallelism * 4, n / (SEQUENTIAL_THRESHOLD / 8));
+        int chunkSize = (n + chunks - 1) / chunks;
+        byte[] bucketOf = new byte[n];
+        int[][] count = new int[chunks][classes];
+        SortMetrics.allocate(n + 16 + chunks * SortMetrics.intArrayBytes(classes));
+
+        // Classify: walk the tree log k steps, go right when x > splitter (a compare and an add, no branch)
+        // The tree finds the first splitter >= x, so every copy of a splitter's value ends in that splitter's equal bucket
+        // Leaves of the tree are numbered firstLeaf .. 2 * firstLeaf - 1
+        int firstLeaf = buckets;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] histogram = count[c];
+            int end = Math.min(n, (c + 1) * chunkSize);
+            for (int i = c * chunkSize; i < end; i++) {
+                int x = arr[left + i];
+                int j = 1;
+                for (int level = 0; level < log; level++) {
+                    j = 2 * j + (x > tree[j] ? 1 : 0);
+                }
+                int bucket = j - firstLeaf;
+                bucket = (bucket << shift) + (x == upper[bucket] ? shift : 0);
+                bucketOf[i] = (byte) bucket;
+                histogram[bucket]++;
+            }
+            SortMetrics.compare((log + shift) * (end - c * chunkSize));
+        });
+
+        int[] bucketStart = toOffsets(count, classes);
+
+        int[] out = new int[n];
+        SortMetrics.allocate(SortMetrics.intArrayBytes(n));
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] offsets = count[c];
+            int end = Math.min(n, (c + 1) * chunkSize);
+            for (int i = c * chunkSize; i < end; i++) {
+                out[offsets[bucketOf[i] & 0xFF]++] = arr[left + i];
+            }
+            SortMetrics.move(end - c * chunkSize);
+        });
+
+        // Every value in bucket b is <= every value in bucket b + 1, so the sorted buckets are the sorted array
+        IntStream.range(0, classes).parallel().forEach(b -> {
+            int from = bucketStart[b];
+            int to = bucketStart[b + 1];
+            if ((b & shift) == 0) {
+                // Equal buckets hold one value, already sorted
+                IntroSort.sort(out, from, to - 1);
+            }
+            System.arraycopy(out, from, arr, left + from, to - from);
+            SortMetrics.move(to - from);
+        });
+    }
+
+    public static void sort(long[] arr) {
+        sort(arr, 0, arr.length - 1);
+    }
+
+    public static void sort(long[] arr, int left, int right) {
+        // Same as the int version
+        int n = right - left + 1;
+        if (n < SEQUENTIAL_THRESHOLD) {
+            IntroSort.sort(arr, left, right);
+            return;
+        }
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int buckets = bucketCount(parallelism);
+
+        long[] sample = new long[buckets * OVERSAMPLING];
+        SplittableRandom random = new SplittableRandom(n);
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = arr[left + random.nextInt(n)];
+        }
+        IntroSort.sort(sample);
+        int step = OVERSAMPLING;
+        boolean equalBuckets = hasEqualSplitters(sample, buckets, step);
+        if (equalBuckets && 2 * buckets > MAX_BUCKETS) {
+            buckets /= 2;
+            step *= 2;
+        }
+        int log = Integer.numberOfTrailingZeros(buckets);
+        long[] tree = new long[buckets];
+        buildTree(tree, 1, sample, 0, buckets, step);
+        long[] upper = new long[buckets];
+        for (int b = 0; b < buckets; b++) {
+            upper[b] = sample[(Math.min(b, buckets - 2) + 1) * step - 1];
+        }
+        int shift = equalBuckets ? 1 : 0;
+        int classes = buckets << shift;
+
+        int chunks = Math.min(parallelism * 4, n / (SEQUENTIAL_THRESHOLD / 8));
+        int chunkSize = (n + chunks - 1) / chunks;
+        byte[] bucketOf = new byte[n];
+        int[][] count = new int[chunks][classes];
+        SortMetrics.allocate(n + 16 + chunks * SortMetrics.intArrayBytes(classes));
+
+        // Leaves of the tree are numbered firstLeaf .. 2 * firstLeaf - 1
+        int firstLeaf = buckets;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] histogram = count[c];
+            int end = Math.min(n, (c + 1) * chunkSize);
+            for (int i = c * chunkSize; i < end; i++) {
+                long x = arr[left + i];
+                int j = 1;
+                for (int level = 0; level < log; level++) {
+                    j = 2 * j + (x > tree[j] ? 1 : 0);
+                }
+                int bucket = j - firstLeaf;
+                bucket = (bucket << shift) + (x == upper[bucket] ? shift : 0);
+                bucketOf[i] = (byte) bucket;
+                histogram[bucket]++;
+            }
+            SortMetrics.compare((log + shift) * (end - c * chunkSize));
+        });
+
+        int[] bucketStart = toOffsets(count, classes);
+
+        long[] out = new long[n];
+        SortMetrics.allocate(SortMetrics.longArrayBytes(n));
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] offsets = count[c];
+            int end = Math.min(n, (c + 1) * chunkSize);
+            for (int i = c * chunkSize; i < end; i++) {
+                out[offsets[bucketOf[i] & 0xFF]++] = arr[left + i];
+            }
+            SortMetrics.move(end - c * chunkSize);
+        });
+
+        IntStream.range(0, classes).parallel().forEach(b -> {
+            int from = bucketStart[b];
+            int to = bucketStart[b + 1];
+            if ((b & shift) == 0) {
+                IntroSort.sort(out, from, to - 1);
+            }
+            System.arraycopy(out, from, arr, left + from, to - from);
+            SortMetrics.move(to - from);
+        });
+    }
+
+    // A few buckets per worker (power of two for the search tree), so one big bucket does not keep the others waiting
+    private static int bucketCount(int parallelism) {
+        int buckets = Integer.highestOneBit(Math.max(2, parallelism * 8) - 1) << 1;
+        return Math.min(MAX_BUCKETS, buckets);
+    }
+
+    // Fills tree[node] with the middle splitter of sample buckets [lo, hi), then the left and right halves below it
+    private static void buildTree(int[] tree, int node, int[] sample, int lo, int hi, int step) {
+        if (hi - lo < 2) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        // Splitter between bucket mid - 1 and bucket mid
+        tree[node] = sample[mid * step - 1];
+        buildTree(tree, 2 * node, sample, lo, mid, step);
+        buildTree(tree, 2 * node + 1, sample, mid, hi, step);
+    }
+
+    private static void buildTree(long[] tree, int node, long[] sample, int lo, int hi, int step) {
+        if (hi - lo < 2) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        tree[node] = sample[mid * step - 1];
+        buildTree(tree, 2 * node, sample, lo, mid, step);
+        buildTree(tree, 2 * node + 1, sample, mid, hi, step);
+    }
+
+    // True if two neighbouring splitters (sample[i * step - 1], i = 1..buckets - 1) are equal
+    private static boolean hasEqualSplitters(int[] sample, int buckets, int step) {
+        for (int i = 1; i < buckets - 1; i++) {
+            if (sample[i * step - 1] == sample[(i + 1) * step - 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasEqualSplitters(long[] sample, int buckets, int step) {
+        for (int i = 1; i < buckets - 1; i++) {
+            if (sample[i * step - 1] == sample[(i + 1) * step - 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Turns the per chunk histograms into scatter offsets (bucket by bucket, chunk by chunk), returns where each bucket starts
+    private static int[] toOffsets(int[][] count, int buckets) {
+        int[] bucketStart = new int[buckets + 1];
+        int sum = 0;
+        for (int b = 0; b < buckets; b++) {
+            bucketStart[b] = sum;
+            for (int[] histogram : count) {
+                int c = histogram[b];
+                histogram[b] = sum;
+                sum += c;
+            }
+        }
+        bucketStart[buckets] = sum;
+        return bucketStart;
+    }
+}
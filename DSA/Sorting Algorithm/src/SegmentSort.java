@@ -0,0 +1,397 @@
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+// Segment Sort - quick sort and merge sort directly on off-heap memory (MemorySegment of JAVA_INT / JAVA_LONG), no copy into an array
+public class SegmentSort {
+    /* Same algorithms as the array versions, every arr[i] is a segment.getAtIndex(layout, i):
+        quickSort - IntroSort flow (median of 3, Hoare partition, heap sort when too deep, insertion sort for small ranges), in place
+        mergeSort - Main.mergeSortBuffered flow (source and destination swap roles every level), the scratch is off-heap too
+       Indexes are long (a segment can hold more than 2^31 elements), left and right are inclusive like the array kernels
+       The segment must be aligned to the element size (Arena.allocate is), JAVA_INT / JAVA_LONG accesses check that
+     */
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT;
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG;
+    private static final int INSERTION_THRESHOLD = IntroSort.INSERTION_THRESHOLD;
+
+    public static void quickSortInts(MemorySegment seg) {
+        quickSortInts(seg, 0, seg.byteSize() / INT.byteSize() - 1);
+    }
+
+    public static void quickSortInts(MemorySegment seg, long left, long right) {
+        if (left < right) {
+            int depthLimit = 2 * (63 - Long.numberOfLeadingZeros(right - left + 1));
+            quickSortInts(seg, left, right, depthLimit);
+        }
+    }
+
+    private static void quickSortInts(MemorySegment seg, long left, long right, int depthLimit) {
+        SortMetrics.enter();
+        try {
+            while (right - left + 1 > INSERTION_THRESHOLD) {
+                if (depthLimit-- == 0) {
+                    heapSortInts(seg, left, right);
+                    return;
+                }
+                long p = partitionInts(seg, left, right);
+
+                // Recursively sort the smaller side, continue the loop with the bigger side
+                if (p - left < right - p) {
+                    quickSortInts(seg, left, p, depthLimit);
+                    left = p + 1;
+                } else {
+                    quickSortInts(seg, p + 1, right, depthLimit);
+                    right = p;
+                }
+            }
+            insertionSortInts(seg, left, right);
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    // Hoare partition, returns p where seg[left..p] <= pivot <= seg[p+1..right] (left <= p < right)
+    private static long partitionInts(MemorySegment seg, long left, long right) {
+        long mid = (left + right) >>> 1;
+        swapInts(seg, mid, medianOf3Ints(seg, left, mid, right));
+        int pivot = seg.getAtIndex(INT, mid);
+
+        long i = left - 1;
+        long j = right + 1;
+        while (true) {
+            do {
+                i++;
+            } while (SortMetrics.compared(seg.getAtIndex(INT, i) < pivot));
+            do {
+                j--;
+            } while (SortMetrics.compared(seg.getAtIndex(INT, j) > pivot));
+
+            if (i >= j) {
+                return j;
+            }
+            swapInts(seg, i, j);
+        }
+    }
+
+    private static long medianOf3Ints(MemorySegment seg, long a, long b, long c) {
+        int x = seg.getAtIndex(INT, a), y = seg.getAtIndex(INT, b), z = seg.getAtIndex(INT, c);
+        if (x < y) {
+            if (y < z) return b;
+            return x < z ? c : a;
+        }
+        if (x < z) return a;
+        return y < z ? c : b;
+    }
+
+    private static void heapSortInts(MemorySegment seg, long left, long right) {
+        long n = right - left + 1;
+        for (long i = n / 2 - 1; i >= 0; i--) {
+            siftDownInts(seg, left, i, n);
+        }
+        for (long end = n - 1; end > 0; end--) {
+            swapInts(seg, left, left + end);
+            siftDownInts(seg, left, 0, end);
+        }
+    }
+
+    private static void siftDownInts(MemorySegment seg, long base, long i, long n) {
+        int value = seg.getAtIndex(INT, base + i);
+        long child;
+        while ((child = 2 * i + 1) < n) {
+            if (child + 1 < n && SortMetrics.compared(seg.getAtIndex(INT, base + child + 1) > seg.getAtIndex(INT, base + child))) {
+                child++;
+            }
+            int childValue = seg.getAtIndex(INT, base + child);
+            if (SortMetrics.compared(childValue <= value)) {
+                break;
+            }
+            seg.setAtIndex(INT, base + i, childValue);
+            SortMetrics.move(1);
+            i = child;
+        }
+        seg.setAtIndex(INT, base + i, value);
+    }
+
+    private static void insertionSortInts(MemorySegment seg, long left, long right) {
+        for (long i = left + 1; i <= right; i++) {
+            int key = seg.getAtIndex(INT, i);
+            long j = i - 1;
+            int value;
+            while (j >= left && SortMetrics.compared((value = seg.getAtIndex(INT, j)) > key)) {
+                seg.setAtIndex(INT, j + 1, value);
+                j--;
+                SortMetrics.move(1);
+            }
+            seg.setAtIndex(INT, j + 1, key);
+            SortMetrics.move(1);
+        }
+    }
+
+    private static void swapInts(MemorySegment seg, long i, long j) {
+        int temp = seg.getAtIndex(INT, i);
+        seg.setAtIndex(INT, i, seg.getAtIndex(INT, j));
+        seg.setAtIndex(INT, j, temp);
+        SortMetrics.swap();
+    }
+
+    // Stable, allocates the scratch off-heap for the duration of the call
+    public static void mergeSortInts(MemorySegment seg) {
+        long n = seg.byteSize() / INT.byteSize();
+        if (n < 2) {
+            return;
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment scratch = arena.allocate(n * INT.byteSize(), INT.byteAlignment());
+            SortMetrics.allocate(scratch.byteSize());
+            mergeSortInts(seg, 0, n - 1, scratch);
+        }
+    }
+
+    // scratch must hold at least right - left + 1 ints, pass the same one to reuse it between calls
+    public static void mergeSortInts(MemorySegment seg, long left, long right, MemorySegment scratch) {
+        long n = right - left + 1;
+        if (n < 2) {
+            return;
+        }
+        checkScratch(scratch, n, INT.byteSize());
+        // Same trick as Main.mergeSortBuffered: both hold the input, then they take turns as source and destination
+        MemorySegment.copy(seg, left * INT.byteSize(), scratch, 0, n * INT.byteSize());
+        SortMetrics.move(n);
+        sortIntoInts(scratch, 0, seg, left, 0, n - 1);
+    }
+
+    // Sorts [lo..hi] of src into the same positions of dst (src + srcOff / dst + dstOff, offsets in elements)
+    private static void sortIntoInts(MemorySegment src, long srcOff, MemorySegment dst, long dstOff, long lo, long hi) {
+        if (hi - lo < INSERTION_THRESHOLD) {
+            // dst already holds the same elements as src here, sort them in place
+            insertionSortInts(dst, dstOff + lo, dstOff + hi);
+            return;
+        }
+        SortMetrics.enter();
+        try {
+            long mid = (lo + hi) >>> 1;
+            sortIntoInts(dst, dstOff, src, srcOff, lo, mid);
+            sortIntoInts(dst, dstOff, src, srcOff, mid + 1, hi);
+
+            // Already in order, just copy instead of merging
+            if (SortMetrics.compared(src.getAtIndex(INT, srcOff + mid) <= src.getAtIndex(INT, srcOff + mid + 1))) {
+                MemorySegment.copy(src, (srcOff + lo) * INT.byteSize(), dst, (dstOff + lo) * INT.byteSize(), (hi - lo + 1) * INT.byteSize());
+            } else {
+                mergeIntoInts(src, srcOff, dst, dstOff, lo, mid, hi);
+            }
+            SortMetrics.move(hi - lo + 1);
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    private static void mergeIntoInts(MemorySegment src, long srcOff, MemorySegment dst, long dstOff, long lo, long mid, long hi) {
+        long i = srcOff + lo, j = srcOff + mid + 1, k = dstOff + lo;
+        long iEnd = srcOff + mid, jEnd = srcOff + hi;
+        // Keep the current head of both runs in locals, one read per element instead of one per comparison
+        int a = src.getAtIndex(INT, i), b = src.getAtIndex(INT, j);
+        while (true) {
+            // <= keeps the left element first on ties (stable)
+            if (SortMetrics.compared(a <= b)) {
+                dst.setAtIndex(INT, k++, a);
+                if (++i > iEnd) break;
+                a = src.getAtIndex(INT, i);
+            } else {
+                dst.setAtIndex(INT, k++, b);
+                if (++j > jEnd) break;
+                b = src.getAtIndex(INT, j);
+            }
+        }
+        // Copy the rest of whichever run is not used up (one of the two copies is empty)
+        MemorySegment.copy(src, i * INT.byteSize(), dst, k * INT.byteSize(), (iEnd - i + 1) * INT.byteSize());
+        MemorySegment.copy(src, j * INT.byteSize(), dst, k * INT.byteSize(), (jEnd - j + 1) * INT.byteSize());
+    }
+
+    // Same algorithms for JAVA_LONG segments
+    public static void quickSortLongs(MemorySegment seg) {
+        quickSortLongs(seg, 0, seg.byteSize() / LONG.byteSize() - 1);
+    }
+
+    public static void quickSortLongs(MemorySegment seg, long left, long right) {
+        if (left < right) {
+            int depthLimit = 2 * (63 - Long.numberOfLeadingZeros(right - left + 1));
+            quickSortLongs(seg, left, right, depthLimit);
+        }
+    }
+
+    private static void quickSortLongs(MemorySegment seg, long left, long right, int depthLimit) {
+        SortMetrics.enter();
+        try {
+            while (right - left + 1 > INSERTION_THRESHOLD) {
+                if (depthLimit-- == 0) {
+                    heapSortLongs(seg, left, right);
+                    return;
+                }
+                long p = partitionLongs(seg, left, right);
+                if (p - left < right - p) {
+                    quickSortLongs(seg, left, p, depthLimit);
+                    left = p + 1;
+                } else {
+                    quickSortLongs(seg, p + 1, right, depthLimit);
+                    right = p;
+                }
+            }
+            insertionSortLongs(seg, left, right);
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    private static long partitionLongs(MemorySegment seg, long left, long right) {
+        long mid = (left + right) >>> 1;
+        swapLongs(seg, mid, medianOf3Longs(seg, left, mid, right));
+        long pivot = seg.getAtIndex(LONG, mid);
+
+        long i = left - 1;
+        long j = right + 1;
+        while (true) {
+            do {
+                i++;
+            } while (SortMetrics.compared(seg.getAtIndex(LONG, i) < pivot));
+            do {
+                j--;
+            } while (SortMetrics.compared(seg.getAtIndex(LONG, j) > pivot));
+
+            if (i >= j) {
+                return j;
+            }
+            swapLongs(seg, i, j);
+        }
+    }
+
+    private static long medianOf3Longs(MemorySegment seg, long a, long b, long c) {
+        long x = seg.getAtIndex(LONG, a), y = seg.getAtIndex(LONG, b), z = seg.getAtIndex(LONG, c);
+        if (x < y) {
+            if (y < z) return b;
+            return x < z ? c : a;
+        }
+        if (x < z) return a;
+        return y < z ? c : b;
+    }
+
+    private static void heapSortLongs(MemorySegment seg, long left, long right) {
+        long n = right - left + 1;
+        for (long i = n / 2 - 1; i >= 0; i--) {
+            siftDownLongs(seg, left, i, n);
+        }
+        for (long end = n - 1; end > 0; end--) {
+            swapLongs(seg, left, left + end);
+            siftDownLongs(seg, left, 0, end);
+        }
+    }
+
+    private static void siftDownLongs(MemorySegment seg, long base, long i, long n) {
+        long value = seg.getAtIndex(LONG, base + i);
+        long child;
+        while ((child = 2 * i + 1) < n) {
+            if (child + 1 < n && SortMetrics.compared(seg.getAtIndex(LONG, base + child + 1) > seg.getAtIndex(LONG, base + child))) {
+                child++;
+            }
+            long childValue = seg.getAtIndex(LONG, base + child);
+            if (SortMetrics.compared(childValue <= value)) {
+                break;
+            }
+            seg.setAtIndex(LONG, base + i, childValue);
+            SortMetrics.move(1);
+            i = child;
+        }
+        seg.setAtIndex(LONG, base + i, value);
+    }
+
+    private static void insertionSortLongs(MemorySegment seg, long left, long right) {
+        for (long i = left + 1; i <= right; i++) {
+            long key = seg.getAtIndex(LONG, i);
+            long j = i - 1;
+            long value;
+            while (j >= left && SortMetrics.compared((value = seg.getAtIndex(LONG, j)) > key)) {
+                seg.setAtIndex(LONG, j + 1, value);
+                j--;
+                SortMetrics.move(1);
+            }
+            seg.setAtIndex(LONG, j + 1, key);
+            SortMetrics.move(1);
+        }
+    }
+
+    private static void swapLongs(MemorySegment seg, long i, long j) {
+        long temp = seg.getAtIndex(LONG, i);
+        seg.setAtIndex(LONG, i, seg.getAtIndex(LONG, j));
+        seg.setAtIndex(LONG, j, temp);
+        SortMetrics.swap();
+    }
+
+    public static void mergeSortLongs(MemorySegment seg) {
+        long n = seg.byteSize() / LONG.byteSize();
+        if (n < 2) {
+            return;
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment scratch = arena.allocate(n * LONG.byteSize(), LONG.byteAlignment());
+            SortMetrics.allocate(scratch.byteSize());
+            mergeSortLongs(seg, 0, n - 1, scratch);
+        }
+    }
+
+    public static void mergeSortLongs(MemorySegment seg, long left, long right, MemorySegment scratch) {
+        long n = right - left + 1;
+        if (n < 2) {
+            return;
+        }
+        checkScratch(scratch, n, LONG.byteSize());
+        MemorySegment.copy(seg, left * LONG.byteSize(), scratch, 0, n * LONG.byteSize());
+        SortMetrics.move(n);
+        sortIntoLongs(scratch, 0, seg, left, 0, n - 1);
+    }
+
+    private static void sortIntoLongs(MemorySegment src, long srcOff, MemorySegment dst, long dstOff, long lo, long hi) {
+        if (hi - lo < INSERTION_THRESHOLD) {
+            insertionSortLongs(dst, dstOff + lo, dstOff + hi);
+            return;
+        }
+        SortMetrics.enter();
+        try {
+            long mid = (lo + hi) >>> 1;
+            sortIntoLongs(dst, dstOff, src, srcOff, lo, mid);
+            sortIntoLongs(dst, dstOff, src, srcOff, mid + 1, hi);
+
+            if (SortMetrics.compared(src.getAtIndex(LONG, srcOff + mid) <= src.getAtIndex(LONG, srcOff + mid + 1))) {
+                MemorySegment.copy(src, (srcOff + lo) * LONG.byteSize(), dst, (dstOff + lo) * LONG.byteSize(), (hi - lo + 1) * LONG.byteSize());
+            } else {
+                mergeIntoLongs(src, srcOff, dst, dstOff, lo, mid, hi);
+            }
+            SortMetrics.move(hi - lo + 1);
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    private static void mergeIntoLongs(MemorySegment src, long srcOff, MemorySegment dst, long dstOff, long lo, long mid, long hi) {
+        long i = srcOff + lo, j = srcOff + mid + 1, k = dstOff + lo;
+        long iEnd = srcOff + mid, jEnd = srcOff + hi;
+        long a = src.getAtIndex(LONG, i), b = src.getAtIndex(LONG, j);
+        while (true) {
+            if (SortMetrics.compared(a <= b)) {
+                dst.setAtIndex(LONG, k++, a);
+                if (++i > iEnd) break;
+                a = src.getAtIndex(LONG, i);
+            } else {
+                dst.setAtIndex(LONG, k++, b);
+                if (++j > jEnd) break;
+                b = src.getAtIndex(LONG, j);
+            }
+        }
+        MemorySegment.copy(src, i * LONG.byteSize(), dst, k * LONG.byteSize(), (iEnd - i + 1) * LONG.byteSize());
+        MemorySegment.copy(src, j * LONG.byteSize(), dst, k * LONG.byteSize(), (jEnd - j + 1) * LONG.byteSize());
+    }
+
+    private static void checkScratch(MemorySegment scratch, long n, long width) {
+        if (scratch.byteSize() < n * width) {
+            throw new IllegalArgumentException("scratch too small: " + scratch.byteSize() + " bytes < " + n * width);
+        }
+    }
+}
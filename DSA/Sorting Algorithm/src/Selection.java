@@ -0,0 +1,146 @@
+// Selection (quickselect) - find the k-th smallest element without sorting the whole array, O(n) on average
+public class Selection {
+    /* Flow (nthElement):
+        Partition like quickSort (Main.partition), but only keep going into the side that contains index k
+        Pivot is the median of three, moved to arr[right] where partition expects it
+        After 2 * log2(n) rounds without finishing (bad pivots, lots of duplicates) switch to introselect:
+        median of medians as pivot (always cuts off at least 30%) and a 3-way partition (duplicates are done at once) -> O(n) worst case
+     */
+
+    // Rearranges arr so arr[k] is the element that would be there if arr was sorted,
+    // everything before it is <= arr[k] and everything after it is >= arr[k] (in no particular order)
+    public static void nthElement(int[] arr, int k) {
+        nthElement(arr, 0, arr.length - 1, k);
+    }
+
+    public static void nthElement(int[] arr, int left, int right, int k) {
+        if (k < left || k > right) {
+            throw new IndexOutOfBoundsException("k " + k + " outside [" + left + ", " + right + "]");
+        }
+        int rounds = 2 * (31 - Integer.numberOfLeadingZeros(right - left + 1));
+        while (right - left >= SmallSort.THRESHOLD) {
+            if (rounds-- == 0) {
+                selectGuaranteed(arr, left, right, k);
+                return;
+            }
+            int mid = (left + right) >>> 1;
+            swap(arr, medianOf3(arr, left, mid, right), right);
+
+            int p = Main.partition(arr, left, right);
+            if (k == p) {
+                return;
+            }
+            // Only the side with k matters
+            if (k < p) {
+                right = p - 1;
+            } else {
+                left = p + 1;
+            }
+        }
+        SmallSort.sort(arr, left, right);
+    }
+
+    // Rearranges arr so arr[0..k-1] are the k smallest elements in sorted order (the rest is in no particular order)
+    public static void partialSort(int[] arr, int k) {
+        if (k < 0 || k > arr.length) {
+            throw new IndexOutOfBoundsException("k " + k + " outside [0, " + arr.length + "]");
+        }
+        if (k == 0) {
+            return;
+        }
+        // Put the k smallest in front, then only sort those - O(n + k log k) instead of O(n log n)
+        if (k < arr.length) {
+            nthElement(arr, k - 1);
+        }
+        IntroSort.sort(arr, 0, k - 1);
+    }
+
+    // Lower median, reorders arr
+    public static int median(int[] arr) {
+        return percentile(arr, 50);
+    }
+
+    // Nearest-rank percentile (0 < p <= 100): the smallest element with at least p% of the elements <= it, reorders arr
+    public static int percentile(int[] arr, double p) {
+        if (arr.length == 0) {
+            throw new IllegalArgumentException("empty array");
+        }
+        if (!(p > 0 && p <= 100)) {
+            throw new IllegalArgumentException("percentile must be in (0, 100]: " + p);
+        }
+        // Rank = ceil(p * n / 100), exact in long arithmetic for whole p (p / 100 * n is off by an ulp, 7 / 100 * 100 = 7.000000000000001)
+        long rank = p == Math.rint(p)
+                ? ((long) p * arr.length + 99) / 100
+                : (long) Math.ceil(p * arr.length / 100);
+        int k = (int) Math.max(0, rank - 1);
+        nthElement(arr, k);
+        return arr[k];
+    }
+
+    // Introselect fallback, O(n) in the worst case
+    private static void selectGuaranteed(int[] arr, int left, int right, int k) {
+        // Recursive through medianOfMedians
+        SortMetrics.enter();
+        try {
+            while (right - left >= 5) {
+                int pivot = medianOfMedians(arr, left, right);
+
+                // 3-way partition: arr[left..lt-1] < pivot, arr[lt..gt] == pivot, arr[gt+1..right] > pivot
+                int lt = left, i = left, gt = right;
+                while (i <= gt) {
+                    if (SortMetrics.compared(arr[i] < pivot)) {
+                        swap(arr, lt++, i++);
+                    } else if (SortMetrics.compared(arr[i] > pivot)) {
+                        swap(arr, i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+                if (k < lt) {
+                    right = lt - 1;
+                } else if (k > gt) {
+                    left = gt + 1;
+                } else {
+                    // k is inside the block of elements equal to the pivot
+                    break;
+                }
+            }
+            if (right - left < 5) {
+                Main.insertionSort(arr, left, right);
+            }
+        } finally {
+            SortMetrics.exit();
+        }
+    }
+
+    // Median of the medians of groups of 5, guaranteed to be bigger than ~30% and smaller than ~30% of the elements
+    private static int medianOfMedians(int[] arr, int left, int right) {
+        int medians = 0;
+        for (int i = left; i <= right; i += 5) {
+            int end = Math.min(i + 4, right);
+            Main.insertionSort(arr, i, end);
+            // Collect the group medians at the front of the range
+            swap(arr, left + medians, i + (end - i) / 2);
+            medians++;
+        }
+        int mid = left + (medians - 1) / 2;
+        selectGuaranteed(arr, left, left + medians - 1, mid);
+        return arr[mid];
+    }
+
+    private static int medianOf3(int[] arr, int a, int b, int c) {
+        if (arr[a] < arr[b]) {
+            if (arr[b] < arr[c]) return b;
+            return arr[a] < arr[c] ? c : a;
+        }
+        if (arr[a] < arr[c]) return a;
+        return arr[b] < arr[c] ? c : b;
+    }
+
+    private static void swap(int[] arr, int i, int j) {
+        int temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+        SortMetrics.swap();
+    }
+}
@@ -0,0 +1,52 @@
+// Small Sort - finishes tiny ranges for quickSort and the merge sorts
+// Uses a SIMD sorting network (VectorSmallSort) when the jdk.incubator.vector module is there, insertion sort otherwise
+public class SmallSort {
+    interface Kernel {
+        // Biggest range the kernel handles in one go
+        int maxLength();
+
+        // Sorts arr[left..right], right - left + 1 <= maxLength()
+        void sort(int[] arr, int left, int right);
+    }
+
+    private static final Kernel KERNEL = pickKernel();
+    // Ranges up to this many elements should be handed to sort() instead of being split further
+    static final int THRESHOLD = KERNEL.maxLength();
+
+    static void sort(int[] arr, int left, int right) {
+        KERNEL.sort(arr, left, right);
+    }
+
+    static String kernelName() {
+        return KERNEL.getClass().getSimpleName();
+    }
+
+    private static Kernel pickKernel() {
+        /* Only try the vector kernel when the module was added (--add-modules jdk.incubator.vector)
+           It is loaded by name so this class never links against the Vector API itself */
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                Kernel kernel = (Kernel) Class.forName("VectorSmallSort").getDeclaredConstructor().newInstance();
+                // Less than 4 lanes (no real SIMD on this CPU) is not worth it
+                if (kernel.maxLength() >= 8) {
+                    return kernel;
+                }
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Fall through to the scalar kernel
+            }
+        }
+        return new ScalarKernel();
+    }
+
+    static class ScalarKernel implements Kernel {
+        @Override
+        public int maxLength() {
+            return 16;
+        }
+
+        @Override
+        public void sort(int[] arr, int left, int right) {
+            Main.insertionSort(arr, left, right);
+        }
+    }
+}
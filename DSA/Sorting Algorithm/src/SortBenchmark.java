@@ -0,0 +1,244 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+// Benchmark - times every sort on the same inputs and prints throughput and allocation per sort
+public class SortBenchmark {
+    /* Usage: java SortBenchmark [sizes] [distributions] [sorts]
+              java SortBenchmark partition [sizes]   (one partition pass only: Lomuto vs block partition)
+        sizes         - comma separated, e.g. 1000,100000,10000000 (1e3..1e8 style is accepted too)
+        distributions - comma separated names from Distribution, or "all"
+        sorts         - comma separated names from SORTS, or "all"
+       Run with a big enough heap for the largest size (every run keeps the input and a working copy), e.g. -Xmx4g for 1e8
+     */
+    static final Map<String, Consumer<int[]>> SORTS = new LinkedHashMap<>();
+    static {
+        SORTS.put("bubbleSort", a -> Main.bubbleSort(a, 0, a.length - 1));
+        SORTS.put("insertionSort", a -> Main.insertionSort(a, 0, a.length - 1));
+        SORTS.put("selectionSort", a -> Main.selectionSort(a, 0, a.length - 1));
+        SORTS.put("mergeSort", a -> Main.mergeSort(a, 0, a.length - 1));
+        SORTS.put("mergeSort2", Main::mergeSort2);
+        SORTS.put("mergeSortBuffered", Main::mergeSortBuffered);
+        SORTS.put("parallelMergeSort", ParallelMergeSort::sort);
+        SORTS.put("adaptiveMergeSort", AdaptiveMergeSort::sort);
+        SORTS.put("quickSort", a -> Main.quickSort(a, 0, a.length - 1));
+        SORTS.put("blockQuickSort", BlockQuickSort::sort);
+        SORTS.put("quickSort3Way", a -> Main.quickSort3Way(a, 0, a.length - 1));
+        SORTS.put("introSort", IntroSort::sort);
+        SORTS.put("heapSort", a -> Main.heapSort(a, 0, a.length - 1));
+        SORTS.put("radixSort", RadixSort::sort);
+        SORTS.put("parallelRadixSort", RadixSort::parallelSort);
+        SORTS.put("sampleSort", SampleSort::sort);
+        SORTS.put("Arrays.sort", Arrays::sort);
+        SORTS.put("Arrays.parallelSort", Arrays::parallelSort);
+    }
+
+    // O(n^2) sorts are skipped from this size on, they would run for hours
+    static final int QUADRATIC_LIMIT = 100_000;
+    // Sorts that recurse about n deep on some inputs are skipped on those inputs above this size,
+    // the default thread stack overflows at a few thousand elements
+    static final int DEEP_RECURSION_LIMIT = 1_000;
+    static final int WARMUP_ITERATIONS = 3;
+    static final int MEASURE_ITERATIONS = 5;
+    // Small inputs are repeated until one measured iteration takes at least this long
+    static final long MIN_ITERATION_NANOS = 100_000_000L;
+
+    enum Distribution {
+        RANDOM, SORTED, REVERSE, ORGAN_PIPE, FEW_UNIQUE;
+
+        int[] generate(int n, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            int[] arr = new int[n];
+            for (int i = 0; i < n; i++) {
+                arr[i] = switch (this) {
+                    case RANDOM -> random.nextInt();
+                    case SORTED -> i;
+                    case REVERSE -> n - i;
+                    // Goes up to the middle then back down: 0 1 2 .. n/2 .. 2 1 0
+                    case ORGAN_PIPE -> Math.min(i, n - 1 - i);
+                    case FEW_UNIQUE -> random.nextInt(8);
+                };
+            }
+            return arr;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("partition")) {
+            runPartition(args.length > 1 ? parseSizes(args[1]) : new int[]{1_000, 100_000, 10_000_000});
+            return;
+        }
+        int[] sizes = args.length > 0 ? parseSizes(args[0]) : new int[]{1_000, 100_000, 10_000_000};
+        List<Distribution> distributions = new ArrayList<>();
+        for (String name : select(args, 1, names(Distribution.values()))) {
+            distributions.add(Distribution.valueOf(name.toUpperCase()));
+        }
+        List<String> sorts = select(args, 2, new ArrayList<>(SORTS.keySet()));
+
+        System.out.printf("%-20s %-11s %11s %14s %12s %14s %12s%n",
+                          "sort", "input", "size", "ops/s", "Melem/s", "alloc B/op", "alloc MB/s");
+        for (int size : sizes) {
+            for (Distribution distribution : distributions) {
+                int[] input = distribution.generate(size, 42);
+                int[] expected = input.clone();
+                Arrays.sort(expected);
+                for (String name : sorts) {
+                    Consumer<int[]> sort = SORTS.get(name);
+                    if (sort == null) {
+                        throw new IllegalArgumentException("Unknown sort: " + name);
+                    }
+                    if ((size >= QUADRATIC_LIMIT && isQuadratic(name))
+                            || (size > DEEP_RECURSION_LIMIT && recursesDeep(name, distribution))) {
+                        System.out.printf("%-20s %-11s %11d %14s%n", name, distribution, size, "skipped");
+                        continue;
+                    }
+                    run(name, sort, distribution, input, expected);
+                }
+            }
+        }
+    }
+
+    private static void run(String name, Consumer<int[]> sort, Distribution distribution, int[] input, int[] expected) {
+        int[] work = new int[input.length];
+        // Sort calls per measured iteration, so tiny inputs are not dominated by the timer
+        int batch = 1;
+        long nanos = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            nanos = iteration(sort, input, work, batch);
+            while (nanos < MIN_ITERATION_NANOS && batch < (1 << 20)) {
+                batch *= 2;
+                nanos = iteration(sort, input, work, batch);
+            }
+        }
+        if (!Arrays.equals(work, expected)) {
+            throw new IllegalStateException(name + " did not sort " + distribution + " input of size " + input.length);
+        }
+
+        long totalNanos = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            Map<Long, Long> bytesBefore = allocatedBytes();
+            totalNanos += iteration(sort, input, work, batch);
+            Map<Long, Long> bytesAfter = allocatedBytes();
+            for (Map.Entry<Long, Long> thread : bytesAfter.entrySet()) {
+                // Threads started during the iteration count from 0, threads that died in between are lost
+                totalBytes += thread.getValue() - bytesBefore.getOrDefault(thread.getKey(), 0L);
+            }
+        }
+        long ops = (long) MEASURE_ITERATIONS * batch;
+        double seconds = totalNanos / 1e9;
+        System.out.printf("%-20s %-11s %11d %14.2f %12.2f %14d %12.2f%n",
+                          name, distribution, input.length,
+                          ops / seconds,
+                          ops * (double) input.length / seconds / 1e6,
+                          totalBytes / ops,
+                          totalBytes / seconds / (1024 * 1024));
+    }
+
+    /* Only the partition step, same random input and the same pivot (arr[right]) for both:
+        Main.partition - Lomuto, one data-dependent branch per element
+        BlockQuickSort.partition - offsets are collected without branches, swaps are done in batches */
+    private static void runPartition(int[] sizes) {
+        System.out.printf("%-20s %11s %12s %10s%n", "partition", "size", "ns/elem", "speedup");
+        for (int size : sizes) {
+            int[] input = Distribution.RANDOM.generate(size, 42);
+            int[] work = new int[size];
+            int[] offsetsL = new int[BlockQuickSort.BLOCK];
+            int[] offsetsR = new int[BlockQuickSort.BLOCK];
+            Consumer<int[]> lomuto = a -> Main.partition(a, 0, a.length - 1);
+            Consumer<int[]> block = a -> BlockQuickSort.partition(a, 0, a.length - 1, offsetsL, offsetsR);
+
+            double lomutoNanos = partitionNanosPerElement(lomuto, input, work);
+            double blockNanos = partitionNanosPerElement(block, input, work);
+            System.out.printf("%-20s %11d %12.3f %10s%n", "Lomuto", size, lomutoNanos, "1.00x");
+            System.out.printf("%-20s %11d %12.3f %9.2fx%n", "block", size, blockNanos, lomutoNanos / blockNanos);
+        }
+    }
+
+    private static double partitionNanosPerElement(Consumer<int[]> partition, int[] input, int[] work) {
+        int batch = 1;
+        long nanos = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            nanos = iteration(partition, input, work, batch);
+            while (nanos < MIN_ITERATION_NANOS && batch < (1 << 20)) {
+                batch *= 2;
+                nanos = iteration(partition, input, work, batch);
+            }
+        }
+        long totalNanos = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            totalNanos += iteration(partition, input, work, batch);
+        }
+        return totalNanos / ((double) MEASURE_ITERATIONS * batch * input.length);
+    }
+
+    // Times batch sorts, the copy of the input into the working array is not timed
+    private static long iteration(Consumer<int[]> sort, int[] input, int[] work, int batch) {
+        long nanos = 0;
+        for (int i = 0; i < batch; i++) {
+            System.arraycopy(input, 0, work, 0, input.length);
+            long start = System.nanoTime();
+            sort.accept(work);
+            nanos += System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    // Allocated bytes per live thread id (parallel sorts allocate on the pool workers, not on this thread)
+    private static Map<Long, Long> allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = threads.getAllThreadIds();
+        long[] bytes = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocated = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            // -1 means the thread already died
+            if (bytes[i] >= 0) {
+                allocated.put(ids[i], bytes[i]);
+            }
+        }
+        return allocated;
+    }
+
+    private static boolean isQuadratic(String name) {
+        return switch (name) {
+            case "bubbleSort", "insertionSort", "selectionSort" -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean recursesDeep(String name, Distribution distribution) {
+        // Pivot is always arr[right]: sorted, reversed and duplicate heavy input is O(n^2) with O(n) recursion depth
+        return name.equals("quickSort") && distribution != Distribution.RANDOM;
+    }
+
+    private static int[] parseSizes(String arg) {
+        String[] parts = arg.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            // Accepts plain numbers and 1e6 style
+            sizes[i] = (int) Double.parseDouble(parts[i].trim());
+        }
+        return sizes;
+    }
+
+    private static List<String> select(String[] args, int index, List<String> all) {
+        if (args.length <= index || args[index].equals("all")) {
+            return all;
+        }
+        return Arrays.asList(args[index].split(","));
+    }
+
+    private static List<String> names(Distribution[] values) {
+        List<String> names = new ArrayList<>();
+        for (Distribution value : values) {
+            names.add(value.name());
+        }
+        return names;
+    }
+}
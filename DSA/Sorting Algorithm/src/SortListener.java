@@ -0,0 +1,5 @@
+// Receives the numbers of every measured sort (see SortMetrics), e.g. to export them to a metrics system
+@FunctionalInterface
+public interface SortListener {
+    void onSort(SortStats stats);
+}
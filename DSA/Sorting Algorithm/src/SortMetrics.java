@@ -0,0 +1,150 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sort Metrics - optional counters inside the sorts: comparisons, swaps, moves, recursion depth and bytes allocated
+public final class SortMetrics {
+    /* Off unless the JVM is started with -Dsort.metrics=true
+       ENABLED is a static final constant, the JIT inlines the tiny methods below and drops them completely when it is false,
+       so the sorts cost the same as without the calls */
+    static final boolean ENABLED = Boolean.getBoolean("sort.metrics");
+
+    // LongAdder, so the parallel sorts can count from many threads without contention
+    private static final LongAdder COMPARISONS = new LongAdder();
+    private static final LongAdder SWAPS = new LongAdder();
+    private static final LongAdder MOVES = new LongAdder();
+    private static final LongAdder BYTES = new LongAdder();
+    // Depth is per thread (a fork-join task starts counting at its own thread's depth)
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+    private static final AtomicInteger MAX_DEPTH = new AtomicInteger();
+
+    private static final List<SortListener> LISTENERS = new CopyOnWriteArrayList<>();
+    /* Measured calls run one at a time, otherwise their counts would mix (the counters are global, the kernels do not know
+       which call they belong to). Limitation: with metrics on, measured sorts from different threads wait for each other,
+       so -Dsort.metrics=true is for benchmarks and single-threaded experiments, not for a server sorting on many threads.
+       A parallel sort is still parallel inside one measured call, its workers count into the same LongAdders */
+    private static final Object LOCK = new Object();
+    // True while a measured call runs (guarded by LOCK), a sorter that calls another measured sorter is counted once
+    private static boolean measuring;
+
+    private SortMetrics() {
+    }
+
+    // Counts one comparison and returns its result, so it can wrap a condition: if (SortMetrics.compared(a[i] > a[j]))
+    static boolean compared(boolean result) {
+        if (ENABLED) {
+            COMPARISONS.increment();
+        }
+        return result;
+    }
+
+    static void compare(int count) {
+        if (ENABLED) {
+            COMPARISONS.add(count);
+        }
+    }
+
+    static void swap() {
+        if (ENABLED) {
+            SWAPS.increment();
+        }
+    }
+
+    static void move(long count) {
+        if (ENABLED) {
+            MOVES.add(count);
+        }
+    }
+
+    static void allocate(long bytes) {
+        if (ENABLED) {
+            BYTES.add(bytes);
+        }
+    }
+
+    // Size of a new int[length] or long[length] (16 byte array header)
+    static long intArrayBytes(int length) {
+        return 16 + 4L * length;
+    }
+
+    static long longArrayBytes(int length) {
+        return 16 + 8L * length;
+    }
+
+    // Call at the start / end of every recursive call
+    static void enter() {
+        if (ENABLED) {
+            int depth = ++DEPTH.get()[0];
+            if (depth > MAX_DEPTH.get()) {
+                MAX_DEPTH.accumulateAndGet(depth, Math::max);
+            }
+        }
+    }
+
+    static void exit() {
+        if (ENABLED) {
+            DEPTH.get()[0]--;
+        }
+    }
+
+    public static void addListener(SortListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(SortListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    // Runs the sort and reports its numbers to every listener (just runs it when metrics are off)
+    // Serialised across threads by LOCK (see above), a sort that throws still ends the measurement
+    public static void measure(String algorithm, int length, Runnable sort) {
+        if (!ENABLED) {
+            sort.run();
+            return;
+        }
+        SortStats stats;
+        synchronized (LOCK) {
+            if (measuring) {
+                sort.run();
+                return;
+            }
+            measuring = true;
+            COMPARISONS.reset();
+            SWAPS.reset();
+            MOVES.reset();
+            BYTES.reset();
+            MAX_DEPTH.set(0);
+            long start = System.nanoTime();
+            try {
+                sort.run();
+            } finally {
+                measuring = false;
+            }
+            long nanos = System.nanoTime() - start;
+            stats = new SortStats(algorithm, length, COMPARISONS.sum(), SWAPS.sum(), MOVES.sum(),
+                                  MAX_DEPTH.get(), BYTES.sum(), nanos);
+        }
+        for (SortListener listener : LISTENERS) {
+            listener.onSort(stats);
+        }
+    }
+
+    // Sorter that measures every call, IntSorter.of() etc. already return these when metrics are on
+    // One name per element type - the sorters are all functional interfaces, a lambda argument would be ambiguous
+    public static IntSorter instrumentInt(String algorithm, IntSorter sorter) {
+        return (arr, from, to) -> measure(algorithm, to - from, () -> sorter.sort(arr, from, to));
+    }
+
+    public static LongSorter instrumentLong(String algorithm, LongSorter sorter) {
+        return (arr, from, to) -> measure(algorithm, to - from, () -> sorter.sort(arr, from, to));
+    }
+
+    public static DoubleSorter instrumentDouble(String algorithm, DoubleSorter sorter) {
+        return (arr, from, to) -> measure(algorithm, to - from, () -> sorter.sort(arr, from, to));
+    }
+
+    public static <T> ObjectSorter<T> instrumentObject(String algorithm, ObjectSorter<T> sorter) {
+        return (arr, from, to) -> measure(algorithm, to - from, () -> sorter.sort(arr, from, to));
+    }
+}
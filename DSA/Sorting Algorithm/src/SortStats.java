@@ -0,0 +1,5 @@
+// Numbers of one measured sort call
+// moves counts single element writes (shifts, merge copies, scatters), a swap counts as one swap and no moves
+public record SortStats(String algorithm, int length, long comparisons, long swaps, long moves,
+                        int maxRecursionDepth, long bytesAllocated, long nanos) {
+}
@@ -0,0 +1,108 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+// Bitonic sorting network on one or two int vectors (8 lanes with AVX2, 16 with AVX-512), everything stays in registers
+// Needs --add-modules jdk.incubator.vector at compile and run time, SmallSort only loads it when the module is there
+class VectorSmallSort implements SmallSort.Kernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    /* Every step of the network is a compare-exchange between lane i and lane i ^ j:
+        partner = v.rearrange(i -> i ^ j), lo = min(v, partner), hi = max(v, partner)
+        each lane keeps lo or hi depending on its position (a fixed mask per step), so there are no branches
+     */
+    // Steps that sort one vector (bitonic sort)
+    private final VectorShuffle<Integer>[] sortShuffles;
+    private final VectorMask<Integer>[] sortTakeMax;
+    // Steps that finish merging two sorted vectors (half cleaners, every lane ascending)
+    private final VectorShuffle<Integer>[] mergeShuffles;
+    private final VectorMask<Integer>[] mergeTakeMax;
+    private final VectorShuffle<Integer> reverse;
+    private final IntVector padding = IntVector.broadcast(SPECIES, Integer.MAX_VALUE);
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    VectorSmallSort() {
+        int log = Integer.numberOfTrailingZeros(LANES);
+        sortShuffles = new VectorShuffle[log * (log + 1) / 2];
+        sortTakeMax = new VectorMask[sortShuffles.length];
+        int step = 0;
+        for (int k = 2; k <= LANES; k <<= 1) {
+            for (int j = k >> 1; j > 0; j >>= 1) {
+                boolean[] takeMax = new boolean[LANES];
+                for (int i = 0; i < LANES; i++) {
+                    boolean ascending = (i & k) == 0;
+                    boolean lower = (i & j) == 0;
+                    takeMax[i] = lower != ascending;
+                }
+                sortShuffles[step] = xorShuffle(j);
+                sortTakeMax[step] = VectorMask.fromArray(SPECIES, takeMax, 0);
+                step++;
+            }
+        }
+
+        mergeShuffles = new VectorShuffle[log];
+        mergeTakeMax = new VectorMask[log];
+        step = 0;
+        for (int j = LANES >> 1; j > 0; j >>= 1) {
+            boolean[] takeMax = new boolean[LANES];
+            for (int i = 0; i < LANES; i++) {
+                takeMax[i] = (i & j) != 0;
+            }
+            mergeShuffles[step] = xorShuffle(j);
+            mergeTakeMax[step] = VectorMask.fromArray(SPECIES, takeMax, 0);
+            step++;
+        }
+        reverse = VectorShuffle.fromOp(SPECIES, i -> LANES - 1 - i);
+    }
+
+    @Override
+    public int maxLength() {
+        return 2 * LANES;
+    }
+
+    @Override
+    public void sort(int[] arr, int left, int right) {
+        int n = right - left + 1;
+        if (n < 2) {
+            return;
+        }
+        if (n <= LANES) {
+            // Missing lanes are filled with MAX_VALUE, they sort to the end and are not stored back
+            VectorMask<Integer> valid = SPECIES.indexInRange(0, n);
+            IntVector v = load(arr, left, valid);
+            network(v, sortShuffles, sortTakeMax).intoArray(arr, left, valid);
+            return;
+        }
+
+        /* Two vectors:
+            sort both, reverse the second (now a + reversed b is bitonic)
+            lo = min(a, b), hi = max(a, b) -> every element of lo <= every element of hi, both still bitonic
+            finish each with the half cleaner steps
+         */
+        VectorMask<Integer> valid = SPECIES.indexInRange(0, n - LANES);
+        IntVector a = network(IntVector.fromArray(SPECIES, arr, left), sortShuffles, sortTakeMax);
+        IntVector b = network(load(arr, left + LANES, valid), sortShuffles, sortTakeMax).rearrange(reverse);
+        IntVector lo = a.min(b);
+        IntVector hi = a.max(b);
+        network(lo, mergeShuffles, mergeTakeMax).intoArray(arr, left);
+        network(hi, mergeShuffles, mergeTakeMax).intoArray(arr, left + LANES, valid);
+    }
+
+    private IntVector load(int[] arr, int offset, VectorMask<Integer> valid) {
+        return padding.blend(IntVector.fromArray(SPECIES, arr, offset, valid), valid);
+    }
+
+    private static IntVector network(IntVector v, VectorShuffle<Integer>[] shuffles, VectorMask<Integer>[] takeMax) {
+        for (int step = 0; step < shuffles.length; step++) {
+            IntVector partner = v.rearrange(shuffles[step]);
+            v = v.min(partner).blend(v.max(partner), takeMax[step]);
+        }
+        return v;
+    }
+
+    private static VectorShuffle<Integer> xorShuffle(int j) {
+        return VectorShuffle.fromOp(SPECIES, i -> i ^ j);
+    }
+}
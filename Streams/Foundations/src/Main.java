@@ -28,6 +28,7 @@ public class Main {
 
         // Through Files
         //Stream<Integer> fileStreams = Files.lines(Path.of("file.txt")); // File must be existing
+        // Every line becomes a String (decoded and copied), for multi-GB files see MappedLines in Practice (lines as byte slices of a mapped file)
         //aa
 
         // Primitive Streams (can perform specialized methods for numerical operations, sum(), average(), min(), max(), and range().
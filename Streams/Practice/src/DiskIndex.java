@@ -0,0 +1,406 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Mini search engine (@Projects) - the SearchIndex persisted as memory-mapped segment files, appended to and merged in the background
+public class DiskIndex implements AutoCloseable {
+    /* Directory layout:
+        segment-<generation>.sidx - immutable IndexSegment files, each with its own ids 0..documents-1
+        segments                  - manifest, one segment file name per line, oldest first
+                                    global id = local id + documents of all segments before it
+        write.lock                - held (FileChannel.lock) by the one instance, in any process, that appends and merges
+
+       Flow:
+        open   - take write.lock, read the manifest and map every listed segment (no index is rebuilt, nothing is decoded)
+                 only the lock holder deletes files not in the manifest (nobody else can be writing one)
+        openReadOnly - no lock and no cleanup, any number of readers in any process, next to one writer
+        append - tokenize + build the new documents in memory (SearchIndex, parallel), write one new segment,
+                 then switch the manifest (write + fsync a temp file, atomic rename, fsync the directory)
+                 a crash or power loss leaves either the old or the new manifest, both valid
+        search - runs per segment on a snapshot of the segment list (no lock), results are shifted and concatenated
+                 (segments hold consecutive id ranges, so per segment results are already in global order)
+        merge  - a background thread merges the MERGE_FACTOR neighbouring segments with the fewest documents into one
+                 whenever there are more than MAX_SEGMENTS, so searches do not slow down as appends pile up
+                 the merged segment covers the same id range, so no id changes
+     */
+    static final String MANIFEST = "segments";
+    static final String WRITE_LOCK = "write.lock";
+    static final int MAX_SEGMENTS = 8;
+    static final int MERGE_FACTOR = 4;
+
+    private final Path directory;
+    // Copy on write snapshot, oldest first - searches read it without locking
+    private volatile List<IndexSegment> segments;
+    private int nextGeneration;
+    // null for a read-only instance
+    private final FileChannel lockChannel;
+    private final FileLock writeLock;
+    // One merge at a time, so the segments a merge picked are still next to each other when it commits
+    private final ExecutorService merger = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "index-merger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private DiskIndex(Path directory, List<IndexSegment> segments, int nextGeneration, FileChannel lockChannel, FileLock writeLock) {
+        this.directory = directory;
+        this.segments = segments;
+        this.nextGeneration = nextGeneration;
+        this.lockChannel = lockChannel;
+        this.writeLock = writeLock;
+    }
+
+    // For appending and merging, fails if another instance (this or another process) has the index open for writing
+    public static DiskIndex open(Path directory) {
+        FileChannel lockChannel = null;
+        try {
+            Files.createDirectories(directory);
+            lockChannel = FileChannel.open(directory.resolve(WRITE_LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock writeLock;
+            try {
+                writeLock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // Held by this JVM
+                writeLock = null;
+            }
+            if (writeLock == null) {
+                throw new IllegalStateException("Index is already open for writing: " + directory);
+            }
+            // With the lock nobody else is writing, the manifest cannot change under us
+            List<String> names = readManifest(directory);
+            List<IndexSegment> segments = new ArrayList<>();
+            for (String name : names) {
+                segments.add(IndexSegment.open(directory.resolve(name)));
+            }
+            // Files not in the manifest are left over from a crashed writer or a merge whose old files could not be deleted yet
+            Set<String> live = new HashSet<>(names);
+            int maxGeneration = -1;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.sidx")) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    maxGeneration = Math.max(maxGeneration, generation(name));
+                    if (!live.contains(name)) {
+                        deleteQuietly(file);
+                    }
+                }
+            }
+            return new DiskIndex(directory, List.copyOf(segments), maxGeneration + 1, lockChannel, writeLock);
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(lockChannel);
+            if (e instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    // Searches only - the segments committed at this moment, no lock, nothing is deleted
+    public static DiskIndex openReadOnly(Path directory) {
+        // A writer's merge can delete a listed segment between reading the manifest and opening it, then read it again
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<IndexSegment> segments = new ArrayList<>();
+                for (String name : readManifest(directory)) {
+                    segments.add(IndexSegment.open(directory.resolve(name)));
+                }
+                return new DiskIndex(directory, List.copyOf(segments), -1, null, null);
+            } catch (UncheckedIOException e) {
+                if (!(e.getCause() instanceof NoSuchFileException) || attempt == 10) {
+                    throw e;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Adds documents as one new segment, returns the id of the first one
+    public int append(List<String> documents) {
+        checkWritable();
+        if (documents.isEmpty()) {
+            return documents();
+        }
+        SearchIndex index = SearchIndex.build(documents);
+        Path file = newSegmentFile();
+        IndexSegment.write(file, index);
+        IndexSegment segment = IndexSegment.open(file);
+        int first;
+        synchronized (this) {
+            first = documents();
+            List<IndexSegment> updated = new ArrayList<>(segments);
+            updated.add(segment);
+            commit(updated);
+        }
+        if (segments.size() > MAX_SEGMENTS) {
+            merger.execute(this::mergeIfNeeded);
+        }
+        return first;
+    }
+
+    // Merges everything into one segment and waits for it (e.g. before shipping the directory read-only)
+    public void forceMerge() {
+        checkWritable();
+        try {
+            merger.submit(() -> {
+                List<IndexSegment> snapshot = segments;
+                if (snapshot.size() > 1) {
+                    merge(snapshot);
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException r ? r : new IllegalStateException(e.getCause());
+        }
+    }
+
+    public int[] and(String... terms) {
+        List<IndexSegment> snapshot = segments;
+        List<int[]> results = new ArrayList<>(snapshot.size());
+        for (IndexSegment segment : snapshot) {
+            results.add(and(segment, terms));
+        }
+        return concat(snapshot, results);
+    }
+
+    public int[] or(String... terms) {
+        List<IndexSegment> snapshot = segments;
+        List<int[]> results = new ArrayList<>(snapshot.size());
+        for (IndexSegment segment : snapshot) {
+            results.add(or(segment, terms));
+        }
+        return concat(snapshot, results);
+    }
+
+    // Same syntax as SearchIndex.search: "java stream OR kotlin"
+    public int[] search(String query) {
+        List<String[]> groups = SearchIndex.parseQuery(query);
+        List<IndexSegment> snapshot = segments;
+        List<int[]> results = new ArrayList<>(snapshot.size());
+        for (IndexSegment segment : snapshot) {
+            List<int[]> matches = new ArrayList<>(groups.size());
+            for (String[] terms : groups) {
+                matches.add(and(segment, terms));
+            }
+            results.add(SearchIndex.union(matches, segment.documents()));
+        }
+        return concat(snapshot, results);
+    }
+
+    public int documents() {
+        int documents = 0;
+        for (IndexSegment segment : segments) {
+            documents += segment.documents();
+        }
+        return documents;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    // Waits for a running merge and releases write.lock, the mappings are released by the GC (auto arenas)
+    @Override
+    public void close() {
+        merger.shutdown();
+        try {
+            merger.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writeLock != null) {
+            try {
+                writeLock.release();
+            } catch (IOException e) {
+                // Released anyway when the channel closes
+            }
+            closeQuietly(lockChannel);
+        }
+    }
+
+    private void checkWritable() {
+        if (writeLock == null) {
+            throw new IllegalStateException("Index is open read-only: " + directory);
+        }
+    }
+
+    private static List<String> readManifest(Path directory) throws IOException {
+        Path manifest = directory.resolve(MANIFEST);
+        List<String> names = new ArrayList<>();
+        if (Files.exists(manifest)) {
+            for (String name : Files.readAllLines(manifest)) {
+                if (!name.isBlank()) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+
+    private static int[] and(IndexSegment segment, String[] terms) {
+        if (terms.length == 0) {
+            return new int[0];
+        }
+        List<IndexSegment.Cursor> cursors = new ArrayList<>(terms.length);
+        for (String term : terms) {
+            IndexSegment.Cursor cursor = segment.cursor(term);
+            if (cursor == null) {
+                return new int[0];
+            }
+            cursors.add(cursor);
+        }
+        return SearchIndex.intersect(cursors);
+    }
+
+    private static int[] or(IndexSegment segment, String[] terms) {
+        List<int[]> lists = new ArrayList<>(terms.length);
+        for (String term : terms) {
+            IndexSegment.Cursor cursor = segment.cursor(term);
+            if (cursor != null) {
+                lists.add(cursor.toArray());
+            }
+        }
+        return SearchIndex.union(lists, segment.documents());
+    }
+
+    // results.get(i) holds the local ids of snapshot.get(i), shifted by the documents of the segments before it
+    private static int[] concat(List<IndexSegment> snapshot, List<int[]> results) {
+        int total = 0;
+        for (int[] r : results) {
+            total += r.length;
+        }
+        int[] ids = new int[total];
+        int k = 0;
+        int base = 0;
+        for (int i = 0; i < results.size(); i++) {
+            for (int doc : results.get(i)) {
+                ids[k++] = base + doc;
+            }
+            base += snapshot.get(i).documents();
+        }
+        return ids;
+    }
+
+    private void mergeIfNeeded() {
+        List<IndexSegment> snapshot = segments;
+        while (snapshot.size() > MAX_SEGMENTS) {
+            // The MERGE_FACTOR neighbours with the fewest documents - small, recent appends are merged first
+            int start = 0;
+            long smallest = Long.MAX_VALUE;
+            for (int i = 0; i + MERGE_FACTOR <= snapshot.size(); i++) {
+                long documents = 0;
+                for (int j = i; j < i + MERGE_FACTOR; j++) {
+                    documents += snapshot.get(j).documents();
+                }
+                if (documents < smallest) {
+                    smallest = documents;
+                    start = i;
+                }
+            }
+            merge(snapshot.subList(start, start + MERGE_FACTOR));
+            snapshot = segments;
+        }
+    }
+
+    // Only called on the merger thread
+    private void merge(List<IndexSegment> sources) {
+        Path file = newSegmentFile();
+        IndexSegment.merge(sources, file);
+        IndexSegment merged = IndexSegment.open(file);
+        synchronized (this) {
+            // Appends only add at the end meanwhile, so the sources are still consecutive
+            List<IndexSegment> current = segments;
+            int at = current.indexOf(sources.get(0));
+            List<IndexSegment> updated = new ArrayList<>(current.subList(0, at));
+            updated.add(merged);
+            updated.addAll(current.subList(at + sources.size(), current.size()));
+            commit(updated);
+        }
+        // Searches still holding the old segments keep their mappings, the files can go (the next open for writing retries what fails here)
+        for (IndexSegment source : sources) {
+            deleteQuietly(source.file);
+        }
+    }
+
+    // Caller holds the lock (and write.lock, so this is the only writer of the temp file)
+    private void commit(List<IndexSegment> updated) {
+        try {
+            Path temp = directory.resolve(MANIFEST + ".tmp");
+            StringBuilder names = new StringBuilder();
+            for (IndexSegment segment : updated) {
+                names.append(segment.file.getFileName()).append('\n');
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer bytes = ByteBuffer.wrap(names.toString().getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                // The content must be on disk before the rename, or a power loss can leave an empty manifest
+                channel.force(true);
+            }
+            Files.move(temp, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments = List.copyOf(updated);
+    }
+
+    private synchronized Path newSegmentFile() {
+        return directory.resolve("segment-" + nextGeneration++ + ".sidx");
+    }
+
+    private static int generation(String name) {
+        try {
+            return Integer.parseInt(name.substring("segment-".length(), name.length() - ".sidx".length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Makes the rename durable (POSIX), some platforms (Windows) cannot open a directory and do not need it
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported here
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing left to do
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Still mapped on some platforms (Windows), deleted on the next open for writing
+        }
+    }
+}
@@ -0,0 +1,363 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// One immutable, memory-mapped file of a DiskIndex - sorted term dictionary + compressed postings with skip entries
+final class IndexSegment {
+    /* File layout (big endian, offsets are absolute file positions):
+        [postings]   per term: varint gaps (same bytes as SearchIndex.Postings), then its skip list: skips x (int doc, int offset in data)
+                     one entry per block after the first (block 0 starts at the first gap), none when count <= SKIP_INTERVAL
+        [terms]      UTF-8 bytes of all terms, back to back, sorted by unsigned bytes
+        [term table] per term, same order, fixed ENTRY_BYTES: long termOffset, int termLength, int count, long dataOffset, int dataLength, int skips
+        [footer]     int MAGIC, int VERSION, int documents, int terms, long termTableOffset
+
+       Opening maps the file and reads only the footer (O(1), nothing is decoded or copied into the heap)
+       A term is found by binary search over the fixed size table, comparing the mapped bytes in place
+       Pages are read on first touch and stay in the OS page cache, shared by every process that maps the same file
+       The file never changes after it is written - appends add new segments, merges write a new file and drop the old ones
+     */
+    static final int MAGIC = 0x53494458; // "SIDX"
+    // 2: no skip entry for block 0
+    static final int VERSION = 2;
+    static final int ENTRY_BYTES = 32;
+    static final int FOOTER_BYTES = 24;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    final Path file;
+    private final MemorySegment mapping;
+    private final int documents;
+    private final int terms;
+    private final long termTableOffset;
+
+    private IndexSegment(Path file, MemorySegment mapping, int documents, int terms, long termTableOffset) {
+        this.file = file;
+        this.mapping = mapping;
+        this.documents = documents;
+        this.terms = terms;
+        this.termTableOffset = termTableOffset;
+    }
+
+    static IndexSegment open(Path file) {
+        // Auto arena - the mapping lives as long as a search still holds this segment, even after a merge dropped it
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), Arena.ofAuto());
+            long footer = mapping.byteSize() - FOOTER_BYTES;
+            if (footer < 0 || mapping.get(INT, footer) != MAGIC || mapping.get(INT, footer + 4) != VERSION) {
+                throw new IllegalStateException("Not an index segment: " + file);
+            }
+            return new IndexSegment(file, mapping, mapping.get(INT, footer + 8), mapping.get(INT, footer + 12),
+                                    mapping.get(LONG, footer + 16));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    int documents() {
+        return documents;
+    }
+
+    int terms() {
+        return terms;
+    }
+
+    // Cursor over the ids of term, null if the segment does not have it
+    Cursor cursor(String term) {
+        int entry = find(term.toLowerCase().getBytes(StandardCharsets.UTF_8));
+        return entry < 0 ? null : new Cursor(entry);
+    }
+
+    // Entry index of term, or -1
+    private int find(byte[] term) {
+        MemorySegment key = MemorySegment.ofArray(term);
+        int low = 0;
+        int high = terms - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareTerm(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // Unsigned byte order of entry's term vs key
+    private int compareTerm(int entry, MemorySegment key) {
+        long base = termTableOffset + (long) entry * ENTRY_BYTES;
+        long offset = mapping.get(LONG, base);
+        int length = mapping.get(INT, base + 8);
+        long mismatch = MemorySegment.mismatch(mapping, offset, offset + length, key, 0, key.byteSize());
+        if (mismatch < 0) {
+            return 0;
+        }
+        if (mismatch == length || mismatch == key.byteSize()) {
+            // One is a prefix of the other, the shorter one comes first
+            return Long.compare(length, key.byteSize());
+        }
+        return Integer.compare(mapping.get(ValueLayout.JAVA_BYTE, offset + mismatch) & 0xFF,
+                               key.get(ValueLayout.JAVA_BYTE, mismatch) & 0xFF);
+    }
+
+    private byte[] term(int entry) {
+        long base = termTableOffset + (long) entry * ENTRY_BYTES;
+        return mapping.asSlice(mapping.get(LONG, base), mapping.get(INT, base + 8)).toArray(ValueLayout.JAVA_BYTE);
+    }
+
+    // Same walk as SearchIndex.PostingsCursor, on the mapped bytes
+    final class Cursor implements SearchIndex.DocCursor {
+        private final int count;
+        private final long dataOffset;
+        private final long skipOffset;
+        // Skip entries + 1, block 0 has none
+        private final int blocks;
+        // Pointer: index - position of doc in the list, offset - next byte to decode (absolute)
+        private int index = -1;
+        private int doc = -1;
+        private long offset;
+
+        private Cursor(int entry) {
+            long base = termTableOffset + (long) entry * ENTRY_BYTES;
+            count = mapping.get(INT, base + 12);
+            dataOffset = mapping.get(LONG, base + 16);
+            skipOffset = dataOffset + mapping.get(INT, base + 24);
+            blocks = mapping.get(INT, base + 28) + 1;
+        }
+
+        @Override
+        public int doc() {
+            return doc;
+        }
+
+        @Override
+        public int next() {
+            int i = ++index;
+            if (i >= count) {
+                index = count;
+                return doc = SearchIndex.NO_MORE_DOCS;
+            }
+            if (i % SearchIndex.SKIP_INTERVAL == 0) {
+                loadBlock(i / SearchIndex.SKIP_INTERVAL);
+                return doc;
+            }
+            return doc += readGap();
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            int block = Math.max(index, 0) / SearchIndex.SKIP_INTERVAL;
+            // Gallop over the skip list, then binary search (last block whose first id <= target)
+            int low = block;
+            int high = block + 1;
+            int step = 1;
+            while (high < blocks && skipDoc(high) <= target) {
+                low = high;
+                step <<= 1;
+                high = low + step;
+            }
+            high = Math.min(high, blocks);
+            while (high - low > 1) {
+                int mid = (low + high) >>> 1;
+                if (skipDoc(mid) <= target) {
+                    low = mid;
+                } else {
+                    high = mid;
+                }
+            }
+            if (low > block || index < 0) {
+                index = low * SearchIndex.SKIP_INTERVAL;
+                loadBlock(low);
+            }
+            while (doc < target) {
+                next();
+            }
+            return doc;
+        }
+
+        // First id of block >= 1 (entry block - 1)
+        private int skipDoc(int block) {
+            return mapping.get(INT, skipOffset + 8L * (block - 1));
+        }
+
+        private void loadBlock(int block) {
+            if (block == 0) {
+                offset = dataOffset;
+                doc = readGap();
+            } else {
+                doc = skipDoc(block);
+                offset = dataOffset + mapping.get(INT, skipOffset + 8L * (block - 1) + 4);
+            }
+        }
+
+        private int readGap() {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = mapping.get(ValueLayout.JAVA_BYTE, offset++);
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return gap;
+        }
+
+        @Override
+        public long cost() {
+            return count;
+        }
+
+        // The ids not read yet
+        int[] toArray() {
+            int[] ids = new int[count - index - 1];
+            for (int k = 0; k < ids.length; k++) {
+                ids[k] = next();
+            }
+            return ids;
+        }
+    }
+
+    // Writes an in-memory index as one segment file
+    static void write(Path file, SearchIndex index) {
+        List<Map.Entry<byte[], SearchIndex.Postings>> sorted = new ArrayList<>(index.terms());
+        index.postings().forEach((term, p) -> sorted.add(Map.entry(term.getBytes(StandardCharsets.UTF_8), p)));
+        sorted.sort((a, b) -> Arrays.compareUnsigned(a.getKey(), b.getKey()));
+        try (Writer writer = new Writer(file, index.documents())) {
+            for (Map.Entry<byte[], SearchIndex.Postings> e : sorted) {
+                writer.add(e.getKey(), e.getValue());
+            }
+            writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* Merge - sources are consecutive segments (ids of a later source come after all ids of an earlier one)
+        k-way merge of the sorted term tables (heap of one position per source), so only one term's ids are in memory
+        ids of source i are shifted by the documents of sources 0..i-1, appended in source order, encoded again
+     */
+    static void merge(List<IndexSegment> sources, Path file) {
+        int[] bases = new int[sources.size()];
+        int documents = 0;
+        for (int i = 0; i < sources.size(); i++) {
+            bases[i] = documents;
+            documents += sources.get(i).documents;
+        }
+        // Current term of every source that still has terms, smallest term first, earlier source first on equal terms
+        record Head(int source, int entry, byte[] term) {}
+        PriorityQueue<Head> heap = new PriorityQueue<>((a, b) -> {
+            int cmp = Arrays.compareUnsigned(a.term, b.term);
+            return cmp != 0 ? cmp : Integer.compare(a.source, b.source);
+        });
+        for (int i = 0; i < sources.size(); i++) {
+            if (sources.get(i).terms > 0) {
+                heap.add(new Head(i, 0, sources.get(i).term(0)));
+            }
+        }
+        try (Writer writer = new Writer(file, documents)) {
+            SearchIndex.DocIds ids = new SearchIndex.DocIds();
+            while (!heap.isEmpty()) {
+                byte[] term = heap.peek().term;
+                ids.size = 0;
+                while (!heap.isEmpty() && Arrays.equals(heap.peek().term, term)) {
+                    Head head = heap.poll();
+                    IndexSegment source = sources.get(head.source);
+                    Cursor cursor = source.new Cursor(head.entry);
+                    for (int doc = cursor.next(); doc != SearchIndex.NO_MORE_DOCS; doc = cursor.next()) {
+                        ids.add(bases[head.source] + doc);
+                    }
+                    if (head.entry + 1 < source.terms) {
+                        heap.add(new Head(head.source, head.entry + 1, source.term(head.entry + 1)));
+                    }
+                }
+                writer.add(term, SearchIndex.Postings.encode(ids.ids, ids.size));
+            }
+            writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Sequential writer, terms must be added in unsigned byte order
+    static final class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final int documents;
+        // Bytes written so far (DataOutputStream.size() is an int)
+        private long position;
+        private final List<byte[]> terms = new ArrayList<>();
+        // {count, dataOffset, dataLength, skips} per term
+        private final List<long[]> entries = new ArrayList<>();
+
+        Writer(Path file, int documents) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            this.documents = documents;
+        }
+
+        void add(byte[] term, SearchIndex.Postings postings) throws IOException {
+            long dataOffset = position;
+            out.write(postings.data);
+            for (int j = 0; j < postings.skipDocs.length; j++) {
+                out.writeInt(postings.skipDocs[j]);
+                out.writeInt(postings.skipOffsets[j]);
+            }
+            position += postings.data.length + 8L * postings.skipDocs.length;
+            terms.add(term);
+            entries.add(new long[]{postings.count, dataOffset, postings.data.length, postings.skipDocs.length});
+        }
+
+        void finish() throws IOException {
+            long[] termOffsets = new long[terms.size()];
+            for (int i = 0; i < terms.size(); i++) {
+                termOffsets[i] = position;
+                out.write(terms.get(i));
+                position += terms.get(i).length;
+            }
+            long termTableOffset = position;
+            for (int i = 0; i < terms.size(); i++) {
+                long[] e = entries.get(i);
+                out.writeLong(termOffsets[i]);
+                out.writeInt(terms.get(i).length);
+                out.writeInt((int) e[0]);
+                out.writeLong(e[1]);
+                out.writeInt((int) e[2]);
+                out.writeInt((int) e[3]);
+            }
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(documents);
+            out.writeInt(terms.size());
+            out.writeLong(termTableOffset);
+            out.flush();
+            // On disk before the manifest points at it
+            channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+// Log analyzer (@Projects) - one parallel pass over a log file: requests per IP, top N slowest endpoints, stats per date
+public class LogAnalyzer {
+    /* Line format (space separated): date time ip method endpoint status latencyMs
+        2024-12-23 14:30:01 10.0.0.1 GET /api/users 200 35
+
+       Flow:
+        Files.lines(...).parallel() - the file is split into chunks by byte position, each worker reads its own chunk
+        Every worker fills its own Stats (plain HashMaps, no locking), a line is parsed with indexOf (no split, no regex)
+        Stats of the workers are combined at the end, then turned into the Report (sorting / top N only happen there)
+        Memory grows with the number of distinct IPs, endpoints and dates, not with the number of lines
+     */
+    record EndpointLatency(String endpoint, long requests, double averageMs, long maxMs) {}
+    record DayStats(long requests, long errors, double averageMs) {}
+    record Report(long lines, long malformed, Map<String, Long> requestsPerIp, List<EndpointLatency> slowestEndpoints,
+                  TreeMap<String, DayStats> byDate) {}
+
+    public static Report analyze(Path log, int topN) {
+        // Files.lines splits well for parallel streams (UTF-8 / ASCII files are split at a line break near the middle)
+        try (Stream<String> lines = Files.lines(log)) {
+            return analyze(lines.parallel(), topN);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Same report from byte slices of the mapped file (MappedLines), only the IP / endpoint / date fields become Strings
+    public static Report analyzeMapped(Path log, int topN) {
+        checkTopN(topN);
+        try (Stream<MappedLines.Line> lines = MappedLines.lines(log)) {
+            return lines.parallel()
+                        .collect(Collector.of(Stats::new, Stats::accept, Stats::combine, s -> s.toReport(topN),
+                                              Collector.Characteristics.UNORDERED));
+        }
+    }
+
+    public static Report analyze(Stream<String> lines, int topN) {
+        checkTopN(topN);
+        // UNORDERED - the counts do not depend on the line order, so chunks can be combined in any order
+        return lines.collect(Collector.of(Stats::new, Stats::accept, Stats::combine, s -> s.toReport(topN),
+                                          Collector.Characteristics.UNORDERED));
+    }
+
+    // Mutable per-worker accumulator, every field is only touched by one thread until combine
+    static class Stats {
+        long lines;
+        long malformed;
+        // long[] as a mutable counter, so a hit is one lookup and no boxing of the count
+        final Map<String, long[]> ip = new HashMap<>();
+        // {requests, total latency, max latency}
+        final Map<String, long[]> endpoint = new HashMap<>();
+        // {requests, errors (status >= 500), total latency}
+        final Map<String, long[]> date = new HashMap<>();
+        // Logs are written in time order, so a line almost always has the same date as the one before it
+        private String lastDate = "";
+        private long[] lastDateStats;
+
+        void accept(String line) {
+            lines++;
+            // Field boundaries
+            int s1 = line.indexOf(' ');
+            int s2 = s1 < 0 ? -1 : line.indexOf(' ', s1 + 1);
+            int s3 = s2 < 0 ? -1 : line.indexOf(' ', s2 + 1);
+            int s4 = s3 < 0 ? -1 : line.indexOf(' ', s3 + 1);
+            int s5 = s4 < 0 ? -1 : line.indexOf(' ', s4 + 1);
+            int s6 = s5 < 0 ? -1 : line.indexOf(' ', s5 + 1);
+            if (s6 < 0) {
+                malformed++;
+                return;
+            }
+            int status = parseNonNegative(line, s5 + 1, s6);
+            long latency = parseNonNegative(line, s6 + 1, line.length());
+            if (status < 0 || latency < 0) {
+                malformed++;
+                return;
+            }
+
+            if (lastDateStats == null || s1 != lastDate.length() || !line.startsWith(lastDate)) {
+                switchDate(line.substring(0, s1));
+            }
+            add(line.substring(s2 + 1, s3), line.substring(s4 + 1, s5), status, latency);
+        }
+
+        // Same parsing on the bytes of a mapped line
+        void accept(MappedLines.Line line) {
+            lines++;
+            int s1 = line.indexOf((byte) ' ', 0);
+            int s2 = s1 < 0 ? -1 : line.indexOf((byte) ' ', s1 + 1);
+            int s3 = s2 < 0 ? -1 : line.indexOf((byte) ' ', s2 + 1);
+            int s4 = s3 < 0 ? -1 : line.indexOf((byte) ' ', s3 + 1);
+            int s5 = s4 < 0 ? -1 : line.indexOf((byte) ' ', s4 + 1);
+            int s6 = s5 < 0 ? -1 : line.indexOf((byte) ' ', s5 + 1);
+            if (s6 < 0) {
+                malformed++;
+                return;
+            }
+            long status = line.parseNonNegative(s5 + 1, s6);
+            long latency = line.parseNonNegative(s6 + 1, line.length());
+            if (status < 0 || latency < 0) {
+                malformed++;
+                return;
+            }
+            if (lastDateStats == null || !line.contentEquals(0, s1, lastDate)) {
+                switchDate(line.toString(0, s1));
+            }
+            add(line.toString(s2 + 1, s3), line.toString(s4 + 1, s5), status, latency);
+        }
+
+        private void switchDate(String day) {
+            lastDate = day;
+            lastDateStats = date.computeIfAbsent(day, k -> new long[3]);
+        }
+
+        // Counts one parsed line, the date is already switched to the line's date
+        private void add(String ipAddress, String path, long status, long latency) {
+            ip.computeIfAbsent(ipAddress, k -> new long[1])[0]++;
+
+            long[] e = endpoint.computeIfAbsent(path, k -> new long[3]);
+            e[0]++;
+            e[1] += latency;
+            e[2] = Math.max(e[2], latency);
+
+            long[] d = lastDateStats;
+            d[0]++;
+            d[1] += status >= 500 ? 1 : 0;
+            d[2] += latency;
+        }
+
+        Stats combine(Stats other) {
+            lines += other.lines;
+            malformed += other.malformed;
+            other.ip.forEach((key, c) -> ip.merge(key, c, (a, b) -> {
+                a[0] += b[0];
+                return a;
+            }));
+            other.endpoint.forEach((key, c) -> endpoint.merge(key, c, (a, b) -> {
+                a[0] += b[0];
+                a[1] += b[1];
+                a[2] = Math.max(a[2], b[2]);
+                return a;
+            }));
+            other.date.forEach((key, c) -> date.merge(key, c, (a, b) -> {
+                a[0] += b[0];
+                a[1] += b[1];
+                a[2] += b[2];
+                return a;
+            }));
+            return this;
+        }
+
+        Report toReport(int topN) {
+            // Most requests first
+            Map<String, Long> requestsPerIp = new LinkedHashMap<>();
+            ip.entrySet().stream()
+              .sorted(Map.Entry.<String, long[]>comparingByValue(Comparator.comparingLong(c -> -c[0])).thenComparing(Map.Entry.comparingByKey()))
+              .forEach(e -> requestsPerIp.put(e.getKey(), e.getValue()[0]));
+
+            // Top N by average latency with a min heap of size N, O(endpoints * log N)
+            Comparator<EndpointLatency> byAverage = Comparator.comparingDouble(EndpointLatency::averageMs);
+            PriorityQueue<EndpointLatency> heap = new PriorityQueue<>(byAverage);
+            if (topN > 0) {
+                endpoint.forEach((name, c) -> {
+                    heap.add(new EndpointLatency(name, c[0], (double) c[1] / c[0], c[2]));
+                    if (heap.size() > topN) {
+                        heap.poll();
+                    }
+                });
+            }
+            List<EndpointLatency> slowest = new ArrayList<>(heap);
+            slowest.sort(byAverage.reversed());
+
+            TreeMap<String, DayStats> byDate = new TreeMap<>();
+            date.forEach((day, c) -> byDate.put(day, new DayStats(c[0], c[1], (double) c[2] / c[0])));
+            return new Report(lines, malformed, requestsPerIp, slowest, byDate);
+        }
+    }
+
+    private static void checkTopN(int topN) {
+        if (topN < 0) {
+            throw new IllegalArgumentException("topN must be >= 0: " + topN);
+        }
+    }
+
+    // Digits of line[from, to) as a number, -1 if empty or not all digits
+    private static int parseNonNegative(String line, int from, int to) {
+        if (from >= to || to - from > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.Comparator;
+
+// One "HH:mm:id:message" log line, parsed once: time and id packed into one long sort key, the message is found by its offset
+public record LogRecord(long key, String line, int messageOffset) {
+    /* key = minute of day (hour * 60 + minute) << 32 | id
+        Sorting by key is sorting by time, then id - one long comparison instead of split(":") and Integer.valueOf per compare
+        The message is not copied while parsing, message() cuts it out of the line only when it is needed
+     */
+    public static final Comparator<LogRecord> BY_TIME = Comparator.comparingLong(LogRecord::key);
+    public static final Comparator<LogRecord> BY_ID = Comparator.comparingInt(LogRecord::id);
+
+    // One pass over the characters, no regex and no String[]
+    public static LogRecord parse(String line) {
+        int c1 = line.indexOf(':');
+        int c2 = c1 < 0 ? -1 : line.indexOf(':', c1 + 1);
+        int c3 = c2 < 0 ? -1 : line.indexOf(':', c2 + 1);
+        if (c3 < 0) {
+            throw new IllegalArgumentException("Expected HH:mm:id:message, got: " + line);
+        }
+        int hour = parseNonNegative(line, 0, c1);
+        int minute = parseNonNegative(line, c1 + 1, c2);
+        int id = parseNonNegative(line, c2 + 1, c3);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || id < 0) {
+            throw new IllegalArgumentException("Expected HH:mm:id:message, got: " + line);
+        }
+        long key = (long) (hour * 60 + minute) << 32 | id;
+        return new LogRecord(key, line, c3 + 1);
+    }
+
+    public int minuteOfDay() {
+        return (int) (key >>> 32);
+    }
+
+    public int hour() {
+        return minuteOfDay() / 60;
+    }
+
+    public int minute() {
+        return minuteOfDay() % 60;
+    }
+
+    public int id() {
+        return (int) key;
+    }
+
+    public String message() {
+        return line.substring(messageOffset);
+    }
+
+    // Digits of s[from, to) as a number, -1 if empty, too long or not all digits
+    private static int parseNonNegative(String s, int from, int to) {
+        if (from >= to || to - from > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Benchmark - sorting "HH:mm:id:message" lines by time: split(":") inside the comparator (ex55) vs parsing once (LogRecord)
+public class LogRecordBenchmark {
+    /* Usage: java LogRecordBenchmark [sizes]
+        sizes - comma separated, e.g. 1000,100000,1e6 (the split comparator needs ~10s per sort at 1e6)
+     */
+    static final int WARMUP_ITERATIONS = 3;
+    static final int MEASURE_ITERATIONS = 5;
+
+    public static void main(String[] args) {
+        String[] sizes = (args.length > 0 ? args[0] : "1000,10000,100000").split(",");
+        System.out.printf("%-28s %10s %12s %10s%n", "approach", "lines", "ms/sort", "speedup");
+        for (String size : sizes) {
+            List<String> logs = generate((int) Double.parseDouble(size.trim()), 42);
+
+            // Same approach as collect3 in ex55: three split(":") per side, per comparison
+            Function<List<String>, List<String>> splitInComparator = lines -> lines.stream()
+                    .sorted(Comparator.comparing((String log) -> Integer.valueOf(log.split(":")[0]))
+                                      .thenComparing((String log) -> Integer.valueOf(log.split(":")[1]))
+                                      .thenComparing((String log) -> Integer.valueOf(log.split(":")[2])))
+                    .map(s -> s.split(":")[3])
+                    .collect(Collectors.toList());
+            // Parse every line once, then compare one long per comparison
+            Function<List<String>, List<String>> parseOnce = lines -> lines.stream()
+                    .map(LogRecord::parse)
+                    .sorted(LogRecord.BY_TIME)
+                    .map(LogRecord::message)
+                    .collect(Collectors.toList());
+
+            if (!splitInComparator.apply(logs).equals(parseOnce.apply(logs))) {
+                throw new IllegalStateException("Results differ for " + logs.size() + " lines");
+            }
+            double splitMillis = millisPerSort(splitInComparator, logs);
+            double parseMillis = millisPerSort(parseOnce, logs);
+            System.out.printf("%-28s %10d %12.3f %10s%n", "split in comparator", logs.size(), splitMillis, "1.00x");
+            System.out.printf("%-28s %10d %12.3f %9.2fx%n", "parse once (LogRecord)", logs.size(), parseMillis, splitMillis / parseMillis);
+        }
+    }
+
+    private static double millisPerSort(Function<List<String>, List<String>> sort, List<String> logs) {
+        // Repeat small inputs so one measurement is not just timer noise
+        int batch = Math.max(1, 1_000_000 / logs.size());
+        for (int i = 0; i < WARMUP_ITERATIONS * batch; i++) {
+            sort.apply(logs);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ITERATIONS * batch; i++) {
+            sort.apply(logs);
+        }
+        return (System.nanoTime() - start) / 1e6 / (MEASURE_ITERATIONS * batch);
+    }
+
+    // Unique ids (the line number), random times - ties on time are broken by id in both approaches
+    private static List<String> generate(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] messages = {"Server Started", "User Logged In", "Database connected", "User Logged out", "Cache miss"};
+        List<String> logs = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            logs.add(String.format("%02d:%02d:%d:%s", random.nextInt(24), random.nextInt(60), i, messages[random.nextInt(messages.length)]));
+        }
+        return logs;
+    }
+}
@@ -1,4 +1,8 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -43,6 +47,8 @@ public class Main {
         Fetch paginated API results, flatten, transform, aggregate, and export CSV.
      */
     public static void main(String[] args) {
+        //ex86();
+        //ex85();
         //ex84();
         
         ex5_hard();
@@ -105,6 +111,77 @@ public class Main {
         System.out.println(collect1); // {Java is=3, is great=1, great and=1, and Java=1, is fun.=1, fun. Java=1, is powerful!=1}
     }
 
+    // Mini search engine (@Projects) - the same index on disk: mapped segments, appends and background merges (see DiskIndex)
+    private static void ex86() {
+        try {
+            Path directory = Files.createTempDirectory("index");
+            try (DiskIndex index = DiskIndex.open(directory)) {
+                index.append(Arrays.asList("Java streams are lazy", "Kotlin flows are cold streams")); // ids 0, 1
+                index.append(Arrays.asList("Parallel streams in Java use ForkJoin"));                  // id 2 (second segment)
+                System.out.println(Arrays.toString(index.and("java", "streams")));            // [0, 2]
+                System.out.println(index.segmentCount());                                     // 2
+            }
+            // Opening again maps the files - nothing is tokenized or rebuilt
+            try (DiskIndex index = DiskIndex.open(directory)) {
+                index.append(Arrays.asList("Java records are immutable"));                   // id 3
+                index.forceMerge();
+                System.out.println(index.segmentCount());                                     // 1
+                System.out.println(Arrays.toString(index.search("java streams OR kotlin"))); // [0, 1, 2]
+                System.out.println(Arrays.toString(index.or("kotlin", "records")));          // [1, 3]
+                // Only one writer (write.lock), readers in this or other processes open without the lock
+                try (DiskIndex reader = DiskIndex.openReadOnly(directory)) {
+                    System.out.println(reader.documents());                                  // 4
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Mini search engine (@Projects) - inverted index with compressed postings, AND / OR queries (see SearchIndex)
+    private static void ex85() {
+        List<String> documents = Arrays.asList(
+                "Java streams are lazy",                 // 0
+                "Kotlin flows are cold streams",         // 1
+                "Parallel streams in Java use ForkJoin", // 2
+                "Java records are immutable"             // 3
+                                              );
+        SearchIndex index = SearchIndex.build(documents);
+        System.out.println(SearchIndex.tokenize(documents.get(2)));        // [parallel, streams, in, java, use, forkjoin]
+        System.out.println(Arrays.toString(index.and("java", "streams"))); // [0, 2]
+        System.out.println(Arrays.toString(index.or("kotlin", "records"))); // [1, 3]
+        System.out.println(Arrays.toString(index.search("java streams OR kotlin"))); // [0, 1, 2]
+        System.out.println(Arrays.toString(index.search("python")));       // []
+        System.out.println(index.terms() + " terms, " + index.postingsCount() + " postings in " + index.postingsBytes() + " bytes"); // 13 terms, 19 postings in 19 bytes (76 as int[])
+    }
+
+    // Log analyzer (@Projects) - requests per IP, top N slowest endpoints and stats per date in one parallel pass (see LogAnalyzer)
+    private static void ex84() {
+        List<String> lines = Arrays.asList(
+                "2024-12-23 14:30:01 10.0.0.1 GET /api/users 200 35",
+                "2024-12-23 14:30:02 10.0.0.2 GET /api/orders 200 120",
+                "2024-12-23 14:30:05 10.0.0.1 POST /api/orders 500 900",
+                "2024-12-24 09:00:00 10.0.0.3 GET /api/users 200 45",
+                "2024-12-24 09:00:01 10.0.0.1 GET /health 200 1",
+                "not a log line"
+                                          );
+        try {
+            Path log = Files.createTempFile("access", ".log");
+            Files.write(log, lines);
+            LogAnalyzer.Report report = LogAnalyzer.analyze(log, 2);
+            Files.delete(log);
+
+            System.out.println(report.requestsPerIp());    // {10.0.0.1=3, 10.0.0.2=1, 10.0.0.3=1}
+            // [EndpointLatency[endpoint=/api/orders, requests=2, averageMs=510.0, maxMs=900], EndpointLatency[endpoint=/api/users, requests=2, averageMs=40.0, maxMs=45]]
+            System.out.println(report.slowestEndpoints());
+            // {2024-12-23=DayStats[requests=3, errors=1, averageMs=351.6666666666667], 2024-12-24=DayStats[requests=2, errors=0, averageMs=23.0]}
+            System.out.println(report.byDate());
+            System.out.println(report.malformed());        // 1
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     // Sum and Sort Transactions by Date
     private static void ex83() {
         List<Transaction> transactions = Arrays.asList(
@@ -570,6 +647,20 @@ public class Main {
                                     .map(s -> s.split(":")[3]) // or s.substring(s.lastIndexOf(":") + 1)
                                     .collect(Collectors.toList());
         System.out.println(collect3);
+        // By Time 3.0 - parse once (LogRecord), the comparators above split(":") again on every comparison (n log n splits)
+        // The record keeps (minute of day << 32 | id) as one long, so sorting and grouping never look at the String again
+        List<LogRecord> records = logs.stream().map(LogRecord::parse).toList();
+        List<String> collect4 = records.stream()
+                                       .sorted(LogRecord.BY_TIME)
+                                       .map(LogRecord::message)
+                                       .collect(Collectors.toList());
+        System.out.println(collect4); // [Database connected, User Logged In, Server Started, User Logged out]
+        Map<Integer, List<String>> byHour = records.stream()
+                                                   .sorted(LogRecord.BY_TIME)
+                                                   .collect(Collectors.groupingBy(LogRecord::hour, TreeMap::new,
+                                                                                  Collectors.mapping(LogRecord::message, Collectors.toList())));
+        System.out.println(byHour); // {14=[Database connected, User Logged In, Server Started], 18=[User Logged out]}
+        // Benchmark on larger inputs: LogRecordBenchmark
     }
 
     // Find the average salary from each department
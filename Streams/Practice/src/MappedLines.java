@@ -0,0 +1,179 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Mapped lines - the lines of a (multi-GB) file as byte slices of a memory mapping, split into balanced chunks for parallel()
+public class MappedLines {
+    /* Files.lines vs MappedLines:
+        Files.lines decodes every byte into a String (two copies per line: buffer -> char[] -> String)
+        Here the file is mapped once (MemorySegment, no 2GB limit like MappedByteBuffer), a line is only (offset, length)
+        The caller reads the bytes it needs and makes Strings only from the fields it keeps
+
+       Flow (LineSpliterator):
+        trySplit - cut the byte range in the middle, move the cut forward to just after the next '\n'
+                   both halves start at a line start, so no line is cut or seen twice, and halves are equal in bytes
+        tryAdvance - scan for the next '\n' from the current position, hand out [position, newline) as a Line
+     */
+    // Ranges smaller than this are not split further (a task should read at least a few pages)
+    private static final long MIN_SPLIT_BYTES = 1 << 16;
+    private static final byte NEWLINE = '\n';
+
+    // One line of the mapped file (without "\n" / "\r\n"), only valid while the stream is open
+    public record Line(MemorySegment segment, long offset, int length) {
+        public byte byteAt(int i) {
+            return segment.get(ValueLayout.JAVA_BYTE, offset + i);
+        }
+
+        // Index of the first b at or after from, -1 if there is none
+        public int indexOf(byte b, int from) {
+            for (int i = from; i < length; i++) {
+                if (byteAt(i) == b) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // Digits in [from, to) as a number, -1 if empty or not all digits
+        public long parseNonNegative(int from, int to) {
+            if (from >= to || to - from > 18) {
+                return -1;
+            }
+            long value = 0;
+            for (int i = from; i < to; i++) {
+                int digit = byteAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return -1;
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        // True if the bytes in [from, to) are the ASCII text s
+        public boolean contentEquals(int from, int to, String s) {
+            if (to - from != s.length()) {
+                return false;
+            }
+            for (int i = from; i < to; i++) {
+                if (byteAt(i) != s.charAt(i - from)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Decodes only [from, to), for the fields that are kept (map keys)
+        public String toString(int from, int to) {
+            byte[] bytes = segment.asSlice(offset + from, to - from).toArray(ValueLayout.JAVA_BYTE);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String toString() {
+            return toString(0, length);
+        }
+    }
+
+    // Like Files.lines: close the stream (try-with-resources) to unmap the file
+    public static Stream<Line> lines(Path file) {
+        // Shared, a parallel stream reads the mapping from several threads
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return lines(segment).onClose(arena::close);
+        } catch (IOException e) {
+            arena.close();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Stream<Line> lines(MemorySegment segment) {
+        return StreamSupport.stream(new LineSpliterator(segment, 0, segment.byteSize()), false);
+    }
+
+    static class LineSpliterator implements Spliterator<Line> {
+        private final MemorySegment segment;
+        // Pointer: position - start of the next line, end - end of this range (a line start, or the end of the file)
+        private long position;
+        private final long end;
+
+        LineSpliterator(MemorySegment segment, long position, long end) {
+            this.segment = segment;
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Line> action) {
+            if (position >= end) {
+                return false;
+            }
+            action.accept(nextLine());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Line> action) {
+            while (position < end) {
+                action.accept(nextLine());
+            }
+        }
+
+        private Line nextLine() {
+            long start = position;
+            long i = start;
+            while (i < end && segment.get(ValueLayout.JAVA_BYTE, i) != NEWLINE) {
+                i++;
+            }
+            // Skip the '\n', the last line may not have one
+            position = i + 1;
+            if (i > start && segment.get(ValueLayout.JAVA_BYTE, i - 1) == '\r') {
+                i--;
+            }
+            return new Line(segment, start, (int) (i - start));
+        }
+
+        @Override
+        public Spliterator<Line> trySplit() {
+            long remaining = end - position;
+            if (remaining < 2 * MIN_SPLIT_BYTES) {
+                return null;
+            }
+            // Cut just after the first '\n' at or after the middle
+            long cut = position + remaining / 2;
+            while (cut < end && segment.get(ValueLayout.JAVA_BYTE, cut - 1) != NEWLINE) {
+                cut++;
+            }
+            if (cut >= end) {
+                // One huge line, cannot split
+                return null;
+            }
+            // The first half goes to the new spliterator, this one keeps the second half (keeps ORDERED correct)
+            LineSpliterator prefix = new LineSpliterator(segment, position, cut);
+            position = cut;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            // Bytes, not lines - only the ratio between halves matters for splitting
+            return end - position;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -0,0 +1,442 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Mini search engine (@Projects) - inverted index with compressed postings, AND / OR queries
+public class SearchIndex {
+    /* Inverted index: term -> sorted ids of the documents that contain it (document id = index in the input list)
+
+       Postings (per term) instead of Map<String, List<Integer>>:
+        ids are stored as gaps (delta) to the previous id, every gap as a varint (7 bits per byte, high bit = more bytes follow)
+        common terms have small gaps -> mostly 1 byte per id instead of 4 (int) or ~20 (boxed Integer in a List)
+        every SKIP_INTERVAL-th id is also kept uncompressed (skipDocs) with the byte offset after it (skipOffsets)
+        so a cursor can jump to a block without decoding everything before it
+        block 0 has no skip entry (it starts at byte 0, its first id is the first gap), so a term with at most
+        SKIP_INTERVAL ids - most terms of a Zipf vocabulary - is only its varints
+
+       Flow (build):
+        IntStream.range(0, documents).parallel() - every worker tokenizes its own documents into its own Builder
+        Builders are combined in encounter order, so a term's ids stay sorted (right half ids > left half ids, just append)
+        then every id list is encoded once into Postings
+
+       Flow (AND, galloping intersection):
+        the rarest term leads, the other cursors advance(doc) - gallop over skipDocs (1, 2, 4, 8... blocks ahead,
+        then binary search) and decode only inside one block, so a rare term skips most of a common term's bytes
+        if a cursor lands past doc, the lead advances to that doc instead (leapfrog) - O(rare * log(common / rare))
+     */
+    static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+    static final int SKIP_INTERVAL = 64;
+
+    private final Map<String, Postings> postings;
+    private final int documents;
+
+    private SearchIndex(Map<String, Postings> postings, int documents) {
+        this.postings = postings;
+        this.documents = documents;
+    }
+
+    public static SearchIndex build(List<String> documents) {
+        // collect keeps encounter order in the combiner (left = earlier documents), even in parallel
+        Builder builder = IntStream.range(0, documents.size())
+                                   .parallel()
+                                   .collect(Builder::new, (b, doc) -> b.add(doc, documents.get(doc)), Builder::combine);
+        Map<String, Postings> postings = new HashMap<>(builder.ids.size() * 2);
+        builder.ids.forEach((term, ids) -> postings.put(term, Postings.encode(ids.ids, ids.size)));
+        return new SearchIndex(postings, documents.size());
+    }
+
+    // Lowercased runs of letters / digits, everything else separates tokens
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Documents that contain every term
+    public int[] and(String... terms) {
+        if (terms.length == 0) {
+            return new int[0];
+        }
+        List<PostingsCursor> cursors = new ArrayList<>(terms.length);
+        for (String term : terms) {
+            Postings p = postings.get(term.toLowerCase());
+            if (p == null) {
+                // A missing term matches nothing
+                return new int[0];
+            }
+            cursors.add(new PostingsCursor(p));
+        }
+        return intersect(cursors);
+    }
+
+    // Documents that contain at least one of the terms
+    public int[] or(String... terms) {
+        List<int[]> lists = new ArrayList<>(terms.length);
+        for (String term : terms) {
+            Postings p = postings.get(term.toLowerCase());
+            if (p != null) {
+                lists.add(p.toArray());
+            }
+        }
+        return union(lists, documents);
+    }
+
+    // "java stream OR kotlin flow" = (java AND stream) OR (kotlin AND flow)
+    public int[] search(String query) {
+        List<int[]> groups = new ArrayList<>();
+        for (String[] terms : parseQuery(query)) {
+            groups.add(and(terms));
+        }
+        return groups.size() == 1 ? groups.get(0) : union(groups, documents);
+    }
+
+    // The AND groups of a query, split at the word "OR"
+    static List<String[]> parseQuery(String query) {
+        List<String[]> groups = new ArrayList<>();
+        StringBuilder group = new StringBuilder();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("OR")) {
+                groups.add(tokenize(group.toString()).toArray(String[]::new));
+                group.setLength(0);
+            } else {
+                group.append(word).append(' ');
+            }
+        }
+        groups.add(tokenize(group.toString()).toArray(String[]::new));
+        return groups;
+    }
+
+    public int documents() {
+        return documents;
+    }
+
+    // For IndexSegment.write
+    Map<String, Postings> postings() {
+        return postings;
+    }
+
+    public int terms() {
+        return postings.size();
+    }
+
+    // Size of all postings (ids + skip entries), compare with 4 * postingsCount() for plain int[]
+    public long postingsBytes() {
+        long bytes = 0;
+        for (Postings p : postings.values()) {
+            bytes += p.data.length + 8L * p.skipDocs.length;
+        }
+        return bytes;
+    }
+
+    public long postingsCount() {
+        long count = 0;
+        for (Postings p : postings.values()) {
+            count += p.count;
+        }
+        return count;
+    }
+
+    // Galloping intersection, the cursor with the fewest ids leads
+    static int[] intersect(List<? extends DocCursor> cursors) {
+        if (cursors.isEmpty()) {
+            return new int[0];
+        }
+        DocCursor[] sorted = cursors.toArray(new DocCursor[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(DocCursor::cost));
+        DocCursor lead = sorted[0];
+        DocIds result = new DocIds();
+        int doc = lead.next();
+        while (doc != NO_MORE_DOCS) {
+            int candidate = doc;
+            for (int i = 1; i < sorted.length; i++) {
+                int other = sorted[i].advance(doc);
+                if (other > doc) {
+                    candidate = other;
+                    break;
+                }
+            }
+            if (candidate == doc) {
+                result.add(doc);
+                doc = lead.next();
+            } else {
+                // Skip the lead straight to where the other list is
+                doc = lead.advance(candidate);
+            }
+        }
+        return result.toArray();
+    }
+
+    // Ids are in [0, documents), so a bitset does the union in O(total ids + documents / 64), already sorted
+    static int[] union(List<int[]> lists, int documents) {
+        if (lists.isEmpty()) {
+            return new int[0];
+        }
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        long[] bits = new long[(documents + 63) >>> 6];
+        int count = 0;
+        for (int[] list : lists) {
+            for (int doc : list) {
+                long mask = 1L << doc;
+                if ((bits[doc >>> 6] & mask) == 0) {
+                    bits[doc >>> 6] |= mask;
+                    count++;
+                }
+            }
+        }
+        int[] result = new int[count];
+        int k = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                result[k++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return result;
+    }
+
+    // Forward-only iterator over sorted document ids
+    interface DocCursor {
+        // Current id, -1 before the first next(), NO_MORE_DOCS at the end
+        int doc();
+
+        int next();
+
+        // First id >= target (from the current position on), NO_MORE_DOCS if there is none
+        int advance(int target);
+
+        // Number of ids, to pick the lead of an intersection
+        long cost();
+    }
+
+    // Compressed ids of one term
+    static final class Postings {
+        final byte[] data;
+        final int count;
+        // Block j (j >= 1) starts at id index j * SKIP_INTERVAL: entry j - 1 is its id, and the offset in data right after that id
+        final int[] skipDocs;
+        final int[] skipOffsets;
+
+        Postings(byte[] data, int count, int[] skipDocs, int[] skipOffsets) {
+            this.data = data;
+            this.count = count;
+            this.skipDocs = skipDocs;
+            this.skipOffsets = skipOffsets;
+        }
+
+        // ids[0..count) must be sorted and distinct
+        static Postings encode(int[] ids, int count) {
+            // One entry per block after the first, none for count <= SKIP_INTERVAL
+            int skips = Math.max(count - 1, 0) / SKIP_INTERVAL;
+            int[] skipDocs = new int[skips];
+            int[] skipOffsets = new int[skips];
+            // A varint of an int is at most 5 bytes
+            byte[] buffer = new byte[count * 5];
+            int position = 0;
+            int previous = 0;
+            for (int i = 0; i < count; i++) {
+                position = writeVarint(buffer, position, ids[i] - previous);
+                if (i % SKIP_INTERVAL == 0 && i > 0) {
+                    skipDocs[i / SKIP_INTERVAL - 1] = ids[i];
+                    skipOffsets[i / SKIP_INTERVAL - 1] = position;
+                }
+                previous = ids[i];
+            }
+            return new Postings(Arrays.copyOf(buffer, position), count, skipDocs, skipOffsets);
+        }
+
+        int[] toArray() {
+            int[] ids = new int[count];
+            int position = 0;
+            int doc = 0;
+            for (int i = 0; i < count; i++) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += gap;
+                ids[i] = doc;
+            }
+            return ids;
+        }
+
+        static int writeVarint(byte[] buffer, int position, int value) {
+            while ((value & ~0x7F) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+            return position;
+        }
+    }
+
+    static final class PostingsCursor implements DocCursor {
+        private final Postings postings;
+        // Pointer: index - position of doc in the list, offset - next byte to decode
+        private int index = -1;
+        private int doc = -1;
+        private int offset;
+
+        PostingsCursor(Postings postings) {
+            this.postings = postings;
+        }
+
+        @Override
+        public int doc() {
+            return doc;
+        }
+
+        @Override
+        public int next() {
+            int i = ++index;
+            if (i >= postings.count) {
+                index = postings.count;
+                return doc = NO_MORE_DOCS;
+            }
+            if (i % SKIP_INTERVAL == 0) {
+                // Block start, no need to decode (and the skip entry is exact)
+                loadBlock(i / SKIP_INTERVAL);
+                return doc;
+            }
+            return doc += readGap();
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            // skipDocs[j - 1] is the first id of block j, block 0 is never looked up (low starts there)
+            int[] skipDocs = postings.skipDocs;
+            int blocks = skipDocs.length + 1;
+            int block = Math.max(index, 0) / SKIP_INTERVAL;
+            // Gallop: last block whose first id <= target, looking 1, 2, 4, ... blocks ahead, then binary search
+            int low = block;
+            int high = block + 1;
+            int step = 1;
+            while (high < blocks && skipDocs[high - 1] <= target) {
+                low = high;
+                step <<= 1;
+                high = low + step;
+            }
+            high = Math.min(high, blocks);
+            while (high - low > 1) {
+                int mid = (low + high) >>> 1;
+                if (skipDocs[mid - 1] <= target) {
+                    low = mid;
+                } else {
+                    high = mid;
+                }
+            }
+            if (low > block || index < 0) {
+                index = low * SKIP_INTERVAL;
+                loadBlock(low);
+            }
+            // At most one block of decoding (the next block starts after target)
+            while (doc < target) {
+                next();
+            }
+            return doc;
+        }
+
+        private void loadBlock(int block) {
+            if (block == 0) {
+                // No skip entry, the first id is the first gap from 0
+                offset = 0;
+                doc = readGap();
+            } else {
+                doc = postings.skipDocs[block - 1];
+                offset = postings.skipOffsets[block - 1];
+            }
+        }
+
+        private int readGap() {
+            byte[] data = postings.data;
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return gap;
+        }
+
+        @Override
+        public long cost() {
+            return postings.count;
+        }
+    }
+
+    // Growable int[] of sorted ids
+    static final class DocIds {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = doc;
+        }
+
+        void addAll(DocIds other) {
+            if (size + other.size > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(size + other.size, size * 2));
+            }
+            System.arraycopy(other.ids, 0, ids, size, other.size);
+            size += other.size;
+        }
+
+        int last() {
+            return size == 0 ? -1 : ids[size - 1];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+
+    // Per-worker term -> ids, only touched by one thread until combine
+    static class Builder {
+        final Map<String, DocIds> ids = new HashMap<>();
+
+        void add(int doc, String text) {
+            for (String term : tokenize(text)) {
+                DocIds list = ids.computeIfAbsent(term, k -> new DocIds());
+                // A term repeated in the same document is indexed once
+                if (list.last() != doc) {
+                    list.add(doc);
+                }
+            }
+        }
+
+        // other holds later documents (encounter order), so its ids go after ours
+        void combine(Builder other) {
+            other.ids.forEach((term, list) -> ids.merge(term, list, (a, b) -> {
+                a.addAll(b);
+                return a;
+            }));
+        }
+    }
+}